@@ -0,0 +1,156 @@
+package main.java;
+
+import main.java.engine.BatchMatcher;
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.Configuration;
+import main.java.engine.FsmFileReader;
+import main.java.engine.StreamMatcher;
+import main.java.shared.Unicode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Command-line driver to test input words without the GUI, the JavaFX toolkit is never initialised.
+ * Usage: {@code BatchMain <automaton.fsm> [<words file> | -] [--witness]} or
+ * {@code BatchMain <automaton.fsm> --file <input> [--positions]}
+ * </p>
+ * <p>
+ * Input words are read one per line from the specified file, or from stdin if it is omitted or "-". For each word a
+ * line of the form {@code word<TAB>accepted} or {@code word<TAB>rejected} is written to stdout, followed by an
+ * shortest accepting path (e.g. {@code <TAB>(Q0,ab), (Q1,b), (Q2,ε)}) if the witness option is given.
+ * </p>
+ * <p>
+ * With the file option the whole contents of the input file is tested as a single word, including any line
+ * terminators, without ever being read into memory at once. A line of the form {@code input<TAB>accepted} or
+ * {@code input<TAB>rejected} is written to stdout, or with the positions option the number of characters of every
+ * accepted prefix of the contents, one per line.
+ * </p>
+ */
+public class BatchMain {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int WORDS_PER_BLOCK = 1 << 14;
+
+    public static void main(String[] args) {
+        List<String> files = new ArrayList<>();
+        String inputFile = null;
+        boolean isWitnessShown = false;
+        boolean isPositionsShown = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--witness")) isWitnessShown = true;
+            else if (args[i].equals("--positions")) isPositionsShown = true;
+            else if (args[i].equals("--file") && i + 1 < args.length) inputFile = args[++i];
+            else files.add(args[i]);
+        }
+        boolean isFileTested = inputFile != null;
+        if (files.isEmpty() || files.size() > (isFileTested ? 1 : 2) || (isFileTested ? isWitnessShown : isPositionsShown)) {
+            System.err.println("Usage: BatchMain <automaton.fsm> [<words file> | -] [--witness]");
+            System.err.println("       BatchMain <automaton.fsm> --file <input> [--positions]");
+            System.exit(2);
+        }
+        String automatonFile = files.get(0);
+        String wordsFile = (files.size() == 2) ? files.get(1) : "-";
+
+        try {
+            CompiledAutomaton automaton = FsmFileReader.read(Paths.get(automatonFile));
+            if (isFileTested) {
+                try (Writer results = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                    testFile(automaton, Paths.get(inputFile), results, isPositionsShown);
+                }
+                return;
+            }
+            ReadableByteChannel channel = wordsFile.equals("-")
+                    ? Channels.newChannel(System.in) : FileChannel.open(Paths.get(wordsFile), StandardOpenOption.READ);
+            try (BufferedReader words = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE), BUFFER_SIZE);
+                 Writer results = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                testWords(automaton, words, results, isWitnessShown);
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Tests every word read from the input, writing one result line per word.
+     *
+     * @param automaton      to test the words on
+     * @param words          one word per line
+     * @param results        to write the results to
+     * @param isWitnessShown whether a shortest accepting path should be written for accepted words
+     * @throws IOException if reading or writing fails
+     */
+    public static void testWords(CompiledAutomaton automaton, BufferedReader words, Writer results, boolean isWitnessShown) throws IOException {
+        BatchMatcher batchMatcher = new BatchMatcher(automaton);
+        List<String> block = new ArrayList<>(WORDS_PER_BLOCK);
+        String word;
+        do {
+            // Test the words a block at a time, so that they are spread over all cores while keeping their order
+            block.clear();
+            while (block.size() < WORDS_PER_BLOCK && (word = words.readLine()) != null) {
+                block.add(word);
+            }
+            // A shortest accepting path decides acceptance by itself, so only one search is needed per word
+            Configuration[] witnesses = isWitnessShown ? batchMatcher.findShortestAcceptingPaths(block) : null;
+            boolean[] isAccepted = isWitnessShown ? null : batchMatcher.matchAll(block);
+            for (int i = 0; i < block.size(); i++) {
+                word = block.get(i);
+                boolean isWordAccepted = isWitnessShown ? witnesses[i] != null : isAccepted[i];
+                results.write(word.isEmpty() ? Unicode.EPSILON : word);
+                results.write(isWordAccepted ? "\taccepted" : "\trejected");
+                if (isWordAccepted && isWitnessShown) {
+                    results.write('\t');
+                    results.write(witnesses[i].formatPath(automaton, word));
+                }
+                results.write('\n');
+            }
+        } while (block.size() == WORDS_PER_BLOCK);
+    }
+
+    /**
+     * Tests the whole contents of the specified file as a single word, decoded as UTF-8.
+     *
+     * @param automaton        to test the contents on
+     * @param input            file whose contents is tested
+     * @param results          to write the result to
+     * @param isPositionsShown whether the length of every accepted prefix should be written instead of the result
+     * @throws IOException if reading the file or writing fails
+     */
+    public static void testFile(CompiledAutomaton automaton, Path input, Writer results, boolean isPositionsShown) throws IOException {
+        StreamMatcher streamMatcher = new StreamMatcher(automaton);
+        if (!isPositionsShown) {
+            results.write(input.toString());
+            results.write(streamMatcher.matches(input) ? "\taccepted\n" : "\trejected\n");
+            return;
+        }
+        // The consumer cannot throw, so a failed write is rethrown once the file has been processed
+        IOException[] writeFailure = new IOException[1];
+        streamMatcher.findAcceptingPositions(input, position -> {
+            try {
+                results.write(Long.toString(position));
+                results.write('\n');
+            } catch (IOException e) {
+                writeFailure[0] = e;
+            }
+        });
+        if (writeFailure[0] != null) {
+            throw writeFailure[0];
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package main.java.engine;
+
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Tests large numbers of words for acceptance in parallel on a work-stealing {@link ForkJoinPool}. The compiled
+ * automaton is shared read-only between the workers, while each worker thread reuses its own {@link LazyDfa} (and so
+ * its own buffers and DFA cache) for every word it is given. Witnesses for accepted words are searched for with a
+ * per-worker {@link ConfigurationSetMatcher}, which stops at the first accepting configuration it reaches.
+ * </p>
+ */
+public final class BatchMatcher {
+    // Number of words below which a range is no longer split between workers
+    private static final int WORDS_PER_TASK = 1024;
+
+    private final CompiledAutomaton automaton;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<LazyDfa> workerDfas;
+    private final ThreadLocal<ConfigurationSetMatcher> workerMatchers;
+
+    /**
+     * Initialises a batch matcher using the common pool.
+     *
+     * @param automaton to test the words on
+     */
+    public BatchMatcher(CompiledAutomaton automaton) {
+        this(automaton, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initialises a batch matcher using the specified pool.
+     *
+     * @param automaton to test the words on
+     * @param pool      to run the workers on
+     */
+    public BatchMatcher(CompiledAutomaton automaton, ForkJoinPool pool) {
+        this.automaton = automaton;
+        this.pool = pool;
+        // Create the shared table up front rather than racing for it in the workers
+        automaton.getEpsilonClosureTable();
+        workerDfas = ThreadLocal.withInitial(() -> new LazyDfa(automaton));
+        workerMatchers = ThreadLocal.withInitial(() -> new ConfigurationSetMatcher(automaton));
+    }
+
+    /**
+     * Get the automaton the words are tested on.
+     *
+     * @return the {@code CompiledAutomaton}
+     */
+    public CompiledAutomaton getAutomaton() {
+        return automaton;
+    }
+
+    /**
+     * Tests whether a single word is accepted, using the calling thread's matcher.
+     *
+     * @param word to be tested
+     * @return <tt>true</tt> if the word is accepted
+     */
+    public boolean matches(CharSequence word) {
+        return workerDfas.get().matches(word);
+    }
+
+    /**
+     * Searches for a shortest accepting path of a single word, using the calling thread's matcher.
+     *
+     * @param word to be tested
+     * @return the last configuration of the path, or {@code null} if the word is rejected
+     */
+    public Configuration findShortestAcceptingPath(CharSequence word) {
+        return workerMatchers.get().findShortestAcceptingPath(word);
+    }
+
+    /**
+     * Tests every word in parallel, reporting the results in input order.
+     *
+     * @param words to be tested, which should support fast random access
+     * @return array where element i is <tt>true</tt> if word i is accepted
+     */
+    public boolean[] matchAll(List<? extends CharSequence> words) {
+        boolean[] results = new boolean[words.size()];
+        pool.invoke(new RangeAction(0, words.size(), i -> results[i] = matches(words.get(i))));
+        return results;
+    }
+
+    /**
+     * Searches for a shortest accepting path of every word in parallel, which also decides whether each word is
+     * accepted.
+     *
+     * @param words to be tested, which should support fast random access
+     * @return array where element i is the last configuration of the path for word i, or {@code null} if it is
+     * rejected
+     */
+    public Configuration[] findShortestAcceptingPaths(List<? extends CharSequence> words) {
+        Configuration[] witnesses = new Configuration[words.size()];
+        pool.invoke(new RangeAction(0, words.size(), i -> witnesses[i] = findShortestAcceptingPath(words.get(i))));
+        return witnesses;
+    }
+
+    /**
+     * Tests every word in parallel, passing each word and its result to the consumer one at a time in input order.
+     *
+     * @param words    to be tested
+     * @param consumer of each word and whether it is accepted
+     * @throws InterruptedException if the calling thread is interrupted, in which case the workers stop testing words
+     */
+    public void matchAll(Stream<? extends CharSequence> words, BiConsumer<CharSequence, Boolean> consumer)
+            throws InterruptedException {
+        runInPool(words, checkedWords -> checkedWords
+                .map(word -> new AbstractMap.SimpleImmutableEntry<CharSequence, Boolean>(word, matches(word)))
+                .forEachOrdered(result -> consumer.accept(result.getKey(), result.getValue())));
+    }
+
+    /**
+     * Tests every word in parallel, passing each word and its result to the consumer as soon as it is known, in no
+     * particular order. This avoids buffering results to restore their order, but the consumer is called concurrently
+     * from several threads.
+     *
+     * @param words    to be tested
+     * @param consumer of each word and whether it is accepted, which must be thread-safe
+     * @throws InterruptedException if the calling thread is interrupted, in which case the workers stop testing words
+     */
+    public void matchAllUnordered(Stream<? extends CharSequence> words, BiConsumer<CharSequence, Boolean> consumer)
+            throws InterruptedException {
+        runInPool(words, checkedWords -> checkedWords.unordered()
+                .forEach(word -> consumer.accept(word, matches(word))));
+    }
+
+    private void runInPool(Stream<? extends CharSequence> words, Consumer<Stream<? extends CharSequence>> pipeline)
+            throws InterruptedException {
+        // Cancelling a task does not stop the workers already running it, so every word checks for cancellation first
+        AtomicBoolean isCancelled = new AtomicBoolean();
+        Stream<? extends CharSequence> checkedWords = words.parallel().peek(word -> {
+            if (isCancelled.get()) {
+                throw new CancellationException();
+            }
+        });
+        // Parallel streams run their tasks in the pool they are started from
+        ForkJoinTask<?> task = pool.submit(() -> pipeline.accept(checkedWords));
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            isCancelled.set(true);
+            task.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+        private final IntConsumer task;
+
+        RangeAction(int start, int end, IntConsumer task) {
+            this.start = start;
+            this.end = end;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= WORDS_PER_TASK) {
+                for (int i = start; i < end; i++) {
+                    task.accept(i);
+                }
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new RangeAction(start, middle, task), new RangeAction(middle, end, task));
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package main.java.engine;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Simulates a {@link CompiledAutomaton} on an input word by tracking the set of active states as a {@code long[]}
+ * bitset. Empty word transitions are resolved through the automaton's {@link EpsilonClosureTable}, so each step is a
+ * word-wise OR of cached successor sets and does not allocate once they have been computed.
+ * A runner reuses its buffers and is therefore not thread-safe, but can be reused for any number of words.
+ * </p>
+ */
+public final class BitsetNfaRunner {
+    private final CompiledAutomaton automaton;
+    private final EpsilonClosureTable table;
+    private long[] currentStates;
+    private long[] nextStates;
+
+    /**
+     * Initialises a runner for the specified automaton.
+     *
+     * @param automaton to simulate
+     */
+    public BitsetNfaRunner(CompiledAutomaton automaton) {
+        this.automaton = automaton;
+        table = automaton.getEpsilonClosureTable();
+        currentStates = new long[table.getWordsPerSet()];
+        nextStates = new long[table.getWordsPerSet()];
+        reset();
+    }
+
+    /**
+     * Restarts the simulation from the ε-closure of the initial state.
+     */
+    public void reset() {
+        for (int word = 0; word < currentStates.length; word++) {
+            currentStates[word] = 0;
+        }
+        if (automaton.hasInitialState()) {
+            table.addClosure(automaton.getInitialState(), currentStates);
+        }
+    }
+
+    /**
+     * Consumes a single input symbol.
+     *
+     * @param symbol input character
+     * @return <tt>true</tt> if there are still active states
+     */
+    public boolean step(char symbol) {
+        boolean isActive = table.step(currentStates, automaton.getSymbolId(symbol), nextStates);
+        long[] swap = currentStates;
+        currentStates = nextStates;
+        nextStates = swap;
+        return isActive;
+    }
+
+    /**
+     * Checks whether any of the active states is accepting.
+     *
+     * @return <tt>true</tt> if the input consumed so far is accepted
+     */
+    public boolean isAccepting() {
+        return table.containsAcceptingState(currentStates);
+    }
+
+    /**
+     * Checks whether the specified state is active.
+     *
+     * @param state id of the state
+     * @return <tt>true</tt> if the state is active
+     */
+    public boolean isActive(int state) {
+        return (currentStates[state >>> 6] & (1L << state)) != 0;
+    }
+
+    /**
+     * Processes the whole of the specified word from the initial state.
+     *
+     * @param word to be processed
+     * @return <tt>true</tt> if the word is accepted
+     */
+    public boolean matches(CharSequence word) {
+        reset();
+        for (int i = 0; i < word.length(); i++) {
+            if (!step(word.charAt(i))) {
+                return false;
+            }
+        }
+        return isAccepting();
+    }
+}
@@ -0,0 +1,376 @@
+package main.java.engine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Immutable, primitive-indexed view of a finite automaton. States and input symbols are numbered densely from 0 and
+ * the transitions are stored as flat {@code int} arrays in a compressed sparse row layout keyed by (state, symbol),
+ * so engines can look up successors without boxing, hashing or comparing strings.
+ * Symbol id {@link #EPSILON} is reserved for the empty word.
+ * </p>
+ */
+public final class CompiledAutomaton {
+    /**
+     * Symbol id used by transitions on the empty word.
+     */
+    public static final int EPSILON = 0;
+    /**
+     * Id returned when a state or symbol is not a part of the automaton.
+     */
+    public static final int NONE = -1;
+
+    private final int numberOfStates;
+    private final int numberOfSymbols;
+    private final int initialState;
+    private final boolean[] accepting;
+    private final String[] stateLabels;
+    private final Map<String, Integer> stateIdsByLabel;
+    private final char[] symbols;
+    private final int[] symbolIdsByCharacter;
+    // Transitions of (state, symbol) are stored in targets[rowOffsets[state * numberOfSymbols + symbol] .. rowOffsets[state * numberOfSymbols + symbol + 1])
+    private final int[] rowOffsets;
+    private final int[] targets;
+    private final int[] transitionIds;
+
+    // Derived tables are computed on first use, and live as long as this (immutable) automaton does
+    private EpsilonClosureTable epsilonClosureTable;
+    private EpsilonComponents epsilonComponents;
+
+    private CompiledAutomaton(Builder builder) {
+        numberOfStates = builder.numberOfStates;
+        numberOfSymbols = builder.numberOfSymbols;
+        initialState = builder.initialState;
+        accepting = Arrays.copyOf(builder.accepting, numberOfStates);
+        stateLabels = Arrays.copyOf(builder.stateLabels, numberOfStates);
+        stateIdsByLabel = new HashMap<>(builder.stateIdsByLabel);
+        symbols = Arrays.copyOf(builder.symbols, numberOfSymbols);
+
+        int maxCharacter = -1;
+        for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+            maxCharacter = Math.max(maxCharacter, symbols[symbol]);
+        }
+        symbolIdsByCharacter = new int[maxCharacter + 1];
+        Arrays.fill(symbolIdsByCharacter, NONE);
+        for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+            symbolIdsByCharacter[symbols[symbol]] = symbol;
+        }
+
+        // Counting sort of the transitions by their (state, symbol) row
+        int numberOfTransitions = builder.numberOfTransitions;
+        rowOffsets = new int[numberOfStates * numberOfSymbols + 1];
+        for (int i = 0; i < numberOfTransitions; i++) {
+            rowOffsets[builder.transitionFrom[i] * numberOfSymbols + builder.transitionSymbol[i] + 1]++;
+        }
+        for (int row = 0; row < numberOfStates * numberOfSymbols; row++) {
+            rowOffsets[row + 1] += rowOffsets[row];
+        }
+        targets = new int[numberOfTransitions];
+        transitionIds = new int[numberOfTransitions];
+        int[] nextFreeSlot = Arrays.copyOf(rowOffsets, rowOffsets.length - 1);
+        for (int i = 0; i < numberOfTransitions; i++) {
+            int slot = nextFreeSlot[builder.transitionFrom[i] * numberOfSymbols + builder.transitionSymbol[i]]++;
+            targets[slot] = builder.transitionTo[i];
+            transitionIds[slot] = i;
+        }
+    }
+
+    /**
+     * Get the number of states in this automaton, states are numbered from 0 to this value (exclusive).
+     *
+     * @return the number of states
+     */
+    public int getNumberOfStates() {
+        return numberOfStates;
+    }
+
+    /**
+     * Get the number of symbol ids in use, including {@link #EPSILON}.
+     *
+     * @return the number of symbol ids
+     */
+    public int getNumberOfSymbols() {
+        return numberOfSymbols;
+    }
+
+    /**
+     * Get the total number of transitions in this automaton, transition ids are numbered from 0 to this value
+     * (exclusive) in the order they were added to the builder.
+     *
+     * @return the number of transitions
+     */
+    public int getNumberOfTransitions() {
+        return targets.length;
+    }
+
+    /**
+     * Checks whether an initial state has been assigned.
+     *
+     * @return <tt>true</tt> if the automaton has an initial state
+     */
+    public boolean hasInitialState() {
+        return initialState != NONE;
+    }
+
+    /**
+     * Get the id of the initial state.
+     *
+     * @return the initial state id or {@link #NONE}
+     */
+    public int getInitialState() {
+        return initialState;
+    }
+
+    /**
+     * Checks whether the specified state is accepting.
+     *
+     * @param state id of the state
+     * @return <tt>true</tt> if the state is accepting
+     */
+    public boolean isAccepting(int state) {
+        return accepting[state];
+    }
+
+    /**
+     * Get the label of the specified state.
+     *
+     * @param state id of the state
+     * @return the label of the state
+     */
+    public String getStateLabel(int state) {
+        return stateLabels[state];
+    }
+
+    /**
+     * Get the id of the state with the specified label.
+     *
+     * @param label of the state
+     * @return the id of the state or {@link #NONE}
+     */
+    public int getStateId(String label) {
+        Integer id = stateIdsByLabel.get(label);
+        return (id == null) ? NONE : id;
+    }
+
+    /**
+     * Get the id of the specified input symbol.
+     *
+     * @param symbol input character
+     * @return the id of the symbol or {@link #NONE} if no transition makes use of it
+     */
+    public int getSymbolId(char symbol) {
+        return (symbol < symbolIdsByCharacter.length) ? symbolIdsByCharacter[symbol] : NONE;
+    }
+
+    /**
+     * Get the input character represented by the specified symbol id.
+     *
+     * @param symbol id of the symbol, must not be {@link #EPSILON}
+     * @return the input character
+     */
+    public char getSymbol(int symbol) {
+        return symbols[symbol];
+    }
+
+    /**
+     * Get the index of the first transition of the specified (state, symbol) pair, to be used with
+     * {@link #getTarget(int)} and {@link #getTransitionId(int)}.
+     *
+     * @param state  id of the state the transitions start from
+     * @param symbol id of the symbol the transitions make use of
+     * @return the index of the first transition (inclusive)
+     */
+    public int getTransitionsStart(int state, int symbol) {
+        return rowOffsets[state * numberOfSymbols + symbol];
+    }
+
+    /**
+     * Get the index after the last transition of the specified (state, symbol) pair.
+     *
+     * @param state  id of the state the transitions start from
+     * @param symbol id of the symbol the transitions make use of
+     * @return the index of the last transition (exclusive)
+     */
+    public int getTransitionsEnd(int state, int symbol) {
+        return rowOffsets[state * numberOfSymbols + symbol + 1];
+    }
+
+    /**
+     * Get the index of the first outgoing transition of the specified state, over all symbols.
+     *
+     * @param state id of the state
+     * @return the index of the first transition (inclusive)
+     */
+    public int getOutgoingTransitionsStart(int state) {
+        return rowOffsets[state * numberOfSymbols];
+    }
+
+    /**
+     * Get the index after the last outgoing transition of the specified state, over all symbols.
+     *
+     * @param state id of the state
+     * @return the index of the last transition (exclusive)
+     */
+    public int getOutgoingTransitionsEnd(int state) {
+        return rowOffsets[(state + 1) * numberOfSymbols];
+    }
+
+    /**
+     * Get the target state of the transition at the specified index.
+     *
+     * @param index of the transition, as bounded by {@link #getTransitionsStart(int, int)}
+     * @return the id of the target state
+     */
+    public int getTarget(int index) {
+        return targets[index];
+    }
+
+    /**
+     * Get the id of the transition at the specified index.
+     *
+     * @param index of the transition, as bounded by {@link #getTransitionsStart(int, int)}
+     * @return the id the transition was given when it was added to the builder
+     */
+    public int getTransitionId(int index) {
+        return transitionIds[index];
+    }
+
+    /**
+     * Checks whether any transition makes use of the empty word.
+     *
+     * @return <tt>true</tt> if there exists a transition using the empty word
+     */
+    public boolean hasEpsilonTransitions() {
+        for (int state = 0; state < numberOfStates; state++) {
+            if (getTransitionsStart(state, EPSILON) != getTransitionsEnd(state, EPSILON)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the table of ε-closures and successor sets of this automaton, creating it on first use. Its rows are
+     * computed as they are used.
+     *
+     * @return the {@code EpsilonClosureTable} of this automaton
+     */
+    public synchronized EpsilonClosureTable getEpsilonClosureTable() {
+        if (epsilonClosureTable == null) {
+            epsilonClosureTable = new EpsilonClosureTable(this);
+        }
+        return epsilonClosureTable;
+    }
+
+    /**
+     * Get the strongly connected components of the empty word transitions of this automaton, computing them on first
+     * use.
+     *
+     * @return the {@code EpsilonComponents} of this automaton
+     */
+    public synchronized EpsilonComponents getEpsilonComponents() {
+        if (epsilonComponents == null) {
+            epsilonComponents = new EpsilonComponents(this);
+        }
+        return epsilonComponents;
+    }
+
+    /**
+     * Collects a {@link CompiledAutomaton}'s states, symbols, and transitions before compiling them.
+     */
+    public static final class Builder {
+        private int numberOfStates;
+        private int numberOfSymbols = 1;
+        private int initialState = NONE;
+        private boolean[] accepting = new boolean[16];
+        private String[] stateLabels = new String[16];
+        private final Map<String, Integer> stateIdsByLabel = new HashMap<>();
+        private char[] symbols = new char[8];
+        private final Map<Character, Integer> symbolIds = new HashMap<>();
+
+        private int numberOfTransitions;
+        private int[] transitionFrom = new int[16];
+        private int[] transitionSymbol = new int[16];
+        private int[] transitionTo = new int[16];
+
+        /**
+         * Adds a state to the automaton being built.
+         *
+         * @param label       of the state
+         * @param isAccepting whether the state is accepting
+         * @return the id of the new state
+         */
+        public int addState(String label, boolean isAccepting) {
+            if (numberOfStates == accepting.length) {
+                accepting = Arrays.copyOf(accepting, numberOfStates * 2);
+                stateLabels = Arrays.copyOf(stateLabels, numberOfStates * 2);
+            }
+            accepting[numberOfStates] = isAccepting;
+            stateLabels[numberOfStates] = label;
+            stateIdsByLabel.put(label, numberOfStates);
+            return numberOfStates++;
+        }
+
+        /**
+         * Sets the initial state of the automaton being built.
+         *
+         * @param state id of the initial state, or {@link #NONE}
+         * @return this builder
+         */
+        public Builder setInitialState(int state) {
+            initialState = state;
+            return this;
+        }
+
+        /**
+         * Get the id of the specified input symbol, assigning it a new id if it has not been seen before.
+         *
+         * @param symbol input character
+         * @return the id of the symbol
+         */
+        public int addSymbol(char symbol) {
+            Integer id = symbolIds.get(symbol);
+            if (id != null) {
+                return id;
+            }
+            if (numberOfSymbols == symbols.length) {
+                symbols = Arrays.copyOf(symbols, numberOfSymbols * 2);
+            }
+            symbols[numberOfSymbols] = symbol;
+            symbolIds.put(symbol, numberOfSymbols);
+            return numberOfSymbols++;
+        }
+
+        /**
+         * Adds a transition between two states which have already been added to the builder.
+         *
+         * @param from   id of the state the transition starts from
+         * @param symbol id of the symbol, as given by {@link #addSymbol(char)}, or {@link #EPSILON}
+         * @param to     id of the state the transition goes to
+         * @return the id of the new transition
+         */
+        public int addTransition(int from, int symbol, int to) {
+            if (numberOfTransitions == transitionFrom.length) {
+                transitionFrom = Arrays.copyOf(transitionFrom, numberOfTransitions * 2);
+                transitionSymbol = Arrays.copyOf(transitionSymbol, numberOfTransitions * 2);
+                transitionTo = Arrays.copyOf(transitionTo, numberOfTransitions * 2);
+            }
+            transitionFrom[numberOfTransitions] = from;
+            transitionSymbol[numberOfTransitions] = symbol;
+            transitionTo[numberOfTransitions] = to;
+            return numberOfTransitions++;
+        }
+
+        /**
+         * Compiles the collected states and transitions.
+         *
+         * @return the {@code CompiledAutomaton}
+         */
+        public CompiledAutomaton build() {
+            return new CompiledAutomaton(this);
+        }
+    }
+}
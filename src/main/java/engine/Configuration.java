@@ -0,0 +1,128 @@
+package main.java.engine;
+
+import main.java.shared.Unicode;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Immutable node of a computation path, consisting of the current state and the number of input symbols consumed.
+ * Each node points to the configuration it was reached from, so paths which branch from a common prefix share it.
+ * </p>
+ */
+public final class Configuration {
+    private final int state;
+    private final int position;
+    private final int transition;
+    private final Configuration parent;
+    private final int length;
+
+    /**
+     * Creates the first configuration of a computation path.
+     *
+     * @param state    id of the state the computation starts at
+     * @param position number of input symbols consumed before the computation started
+     */
+    public Configuration(int state, int position) {
+        this(state, position, CompiledAutomaton.NONE, null);
+    }
+
+    /**
+     * Creates a configuration reached from the specified parent configuration.
+     *
+     * @param state      id of the state reached
+     * @param position   number of input symbols consumed so far
+     * @param transition id of the transition used to reach this configuration, or {@link CompiledAutomaton#NONE}
+     * @param parent     the configuration this one was reached from, or {@code null}
+     */
+    public Configuration(int state, int position, int transition, Configuration parent) {
+        this.state = state;
+        this.position = position;
+        this.transition = transition;
+        this.parent = parent;
+        this.length = (parent == null) ? 1 : parent.length + 1;
+    }
+
+    /**
+     * Get the id of the state of this configuration.
+     *
+     * @return the state id
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * Get the number of input symbols consumed when this configuration was reached.
+     *
+     * @return the input position
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Get the id of the transition used to reach this configuration.
+     *
+     * @return the transition id or {@link CompiledAutomaton#NONE} for the first configuration of a path
+     */
+    public int getTransition() {
+        return transition;
+    }
+
+    /**
+     * Get the configuration that this configuration was reached from.
+     *
+     * @return the parent {@code Configuration} or {@code null} for the first configuration of a path
+     */
+    public Configuration getParent() {
+        return parent;
+    }
+
+    /**
+     * Get the number of configurations on the path ending at this configuration.
+     *
+     * @return the length of the path
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Get the configurations of the path ending at this configuration, in the order they were visited.
+     *
+     * @return array of configurations starting with the first configuration of the path
+     */
+    public Configuration[] toPath() {
+        Configuration[] path = new Configuration[length];
+        Configuration current = this;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = current;
+            current = current.parent;
+        }
+        return path;
+    }
+
+    /**
+     * Formats the path ending at this configuration as a list of (state, remaining input word) pairs.
+     *
+     * @param automaton the configuration's state ids refer to
+     * @param word      being processed
+     * @return the formatted path e.g. "(Q0,ab), (Q1,b), (Q2,ε)"
+     */
+    public String formatPath(CompiledAutomaton automaton, CharSequence word) {
+        StringBuilder formattedPath = new StringBuilder();
+        for (Configuration configuration : toPath()) {
+            if (formattedPath.length() > 0) {
+                formattedPath.append(", ");
+            }
+            formattedPath.append("(").append(automaton.getStateLabel(configuration.state)).append(",");
+            if (configuration.position >= word.length()) {
+                formattedPath.append(Unicode.EPSILON);
+            } else {
+                formattedPath.append(word, configuration.position, word.length());
+            }
+            formattedPath.append(")");
+        }
+        return formattedPath.toString();
+    }
+}
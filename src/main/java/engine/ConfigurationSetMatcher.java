@@ -0,0 +1,253 @@
+package main.java.engine;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Processes input words on a {@link CompiledAutomaton} by tracking the set of (state, input position) configurations
+ * which are reachable, rather than every path leading to them. Each configuration is visited at most once, so
+ * deciding acceptance costs O(|w|·|Q|·deg) even on highly ambiguous automata. The computation paths themselves are
+ * only reconstructed on demand through the returned {@link MatchResult}.
+ * A matcher reuses its scratch buffers and is therefore not thread-safe.
+ * </p>
+ */
+public final class ConfigurationSetMatcher {
+    // Approximate size of a configuration object, used to charge the breadth-first search to its budget
+    private static final int CONFIGURATION_SIZE = 32;
+    // Number of configurations the breadth-first search explores between reports to its budget
+    private static final int CONFIGURATIONS_PER_REPORT = 1024;
+
+    private final CompiledAutomaton automaton;
+    // Reverse adjacency of the empty word transitions, used to reconstruct paths backwards
+    private final int[] reverseEpsilonOffsets;
+    private final int[] reverseEpsilonSources;
+
+    private final int[] stamps;
+    private final int[] buffer;
+
+    /**
+     * Initialises a matcher for the specified automaton.
+     *
+     * @param automaton to process words on
+     */
+    public ConfigurationSetMatcher(CompiledAutomaton automaton) {
+        this.automaton = automaton;
+        int numberOfStates = automaton.getNumberOfStates();
+        stamps = new int[numberOfStates];
+        buffer = new int[numberOfStates];
+
+        reverseEpsilonOffsets = new int[numberOfStates + 1];
+        for (int state = 0; state < numberOfStates; state++) {
+            for (int i = automaton.getTransitionsStart(state, CompiledAutomaton.EPSILON); i < automaton.getTransitionsEnd(state, CompiledAutomaton.EPSILON); i++) {
+                reverseEpsilonOffsets[automaton.getTarget(i) + 1]++;
+            }
+        }
+        for (int state = 0; state < numberOfStates; state++) {
+            reverseEpsilonOffsets[state + 1] += reverseEpsilonOffsets[state];
+        }
+        reverseEpsilonSources = new int[reverseEpsilonOffsets[numberOfStates]];
+        int[] nextFreeSlot = Arrays.copyOf(reverseEpsilonOffsets, numberOfStates);
+        for (int state = 0; state < numberOfStates; state++) {
+            for (int i = automaton.getTransitionsStart(state, CompiledAutomaton.EPSILON); i < automaton.getTransitionsEnd(state, CompiledAutomaton.EPSILON); i++) {
+                reverseEpsilonSources[nextFreeSlot[automaton.getTarget(i)]++] = state;
+            }
+        }
+    }
+
+    /**
+     * Get the automaton which this matcher processes words on.
+     *
+     * @return the {@code CompiledAutomaton}
+     */
+    public CompiledAutomaton getAutomaton() {
+        return automaton;
+    }
+
+    /**
+     * Processes the specified word, computing every configuration reachable from the initial state.
+     *
+     * @param word to be processed on the automaton
+     * @return the {@code MatchResult} describing the reachable configurations
+     */
+    public MatchResult match(CharSequence word) {
+        return match(word, null);
+    }
+
+    /**
+     * Processes the specified word within a budget, computing every configuration reachable from the initial state.
+     *
+     * @param word   to be processed on the automaton
+     * @param budget to report progress to, or {@code null} for an unlimited search
+     * @return the {@code MatchResult} describing the reachable configurations, which is incomplete if the budget was
+     * exhausted before the whole word was processed
+     */
+    public MatchResult match(CharSequence word, SearchBudget budget) {
+        int length = word.length();
+        int[] symbols = new int[length];
+        for (int i = 0; i < length; i++) {
+            symbols[i] = automaton.getSymbolId(word.charAt(i));
+        }
+
+        int[][] layers = new int[length + 1][];
+        Arrays.fill(stamps, -1);
+        int count = 0;
+        if (automaton.hasInitialState()) {
+            stamps[automaton.getInitialState()] = 0;
+            buffer[count++] = automaton.getInitialState();
+        }
+
+        for (int position = 0; position <= length; position++) {
+            count = closeUnderEpsilon(position, count);
+            layers[position] = Arrays.copyOf(buffer, count);
+            // Layers are kept sorted so that membership can be checked with a binary search
+            Arrays.sort(layers[position]);
+            if (budget != null && !budget.charge(count, (long) count * Integer.BYTES, position)) {
+                return new MatchResult(this, word, symbols, Arrays.copyOf(layers, position + 1), false, false);
+            }
+            if (position == length) {
+                break;
+            }
+
+            // Consume the next input symbol from every configuration at this position
+            count = 0;
+            int symbol = symbols[position];
+            if (symbol != CompiledAutomaton.NONE) {
+                for (int state : layers[position]) {
+                    for (int i = automaton.getTransitionsStart(state, symbol); i < automaton.getTransitionsEnd(state, symbol); i++) {
+                        int target = automaton.getTarget(i);
+                        if (stamps[target] != position + 1) {
+                            stamps[target] = position + 1;
+                            buffer[count++] = target;
+                        }
+                    }
+                }
+            }
+        }
+
+        boolean isAccepted = false;
+        for (int state : layers[length]) {
+            if (automaton.isAccepting(state)) {
+                isAccepted = true;
+                break;
+            }
+        }
+        return new MatchResult(this, word, symbols, layers, isAccepted, true);
+    }
+
+    /**
+     * Searches for an accepting computation path with as few configurations as possible, without computing the rest of
+     * the reachable configurations. The breadth-first search stops at the first accepting configuration it reaches,
+     * so answering whether a word is accepted with a witness does not cost a full {@link #match(CharSequence)}.
+     *
+     * @param word to be processed on the automaton
+     * @return the last configuration of a shortest accepting path, or {@code null} if the word is rejected
+     */
+    public Configuration findShortestAcceptingPath(CharSequence word) {
+        return findShortestAcceptingPath(word, null);
+    }
+
+    /**
+     * Searches for an accepting computation path with as few configurations as possible within a budget.
+     *
+     * @param word   to be processed on the automaton
+     * @param budget to report progress to, or {@code null} for an unlimited search
+     * @return the last configuration of a shortest accepting path, or {@code null} if the word is rejected or the
+     * budget was exhausted before a path was found
+     */
+    public Configuration findShortestAcceptingPath(CharSequence word, SearchBudget budget) {
+        if (!automaton.hasInitialState()) {
+            return null;
+        }
+        int length = word.length();
+        int[] symbols = new int[length];
+        for (int i = 0; i < length; i++) {
+            symbols[i] = automaton.getSymbolId(word.charAt(i));
+        }
+
+        // The search goes a position at a time, so whether a state has been visited is only kept for the current
+        // position, and whether it has been entered from the previous one only for the next position
+        int numberOfStates = automaton.getNumberOfStates();
+        if (budget != null && !budget.charge(0, 2L * numberOfStates * Integer.BYTES, 0)) {
+            return null;
+        }
+        int[] visitedStamps = new int[numberOfStates];
+        int[] enteredStamps = new int[numberOfStates];
+        ArrayDeque<Configuration> entered = new ArrayDeque<>();
+        entered.add(new Configuration(automaton.getInitialState(), 0));
+
+        int numberOfExplored = 0;
+        for (int position = 0; position <= length && !entered.isEmpty(); position++) {
+            int symbol = (position < length) ? symbols[position] : CompiledAutomaton.NONE;
+            ArrayDeque<Configuration> closure = new ArrayDeque<>();
+            ArrayDeque<Configuration> enteredNext = new ArrayDeque<>();
+            while (!entered.isEmpty() || !closure.isEmpty()) {
+                // Both queues are ordered by path length, so merging them visits each configuration along a shortest
+                // path first, even when a configuration entered later is reached sooner through empty word transitions
+                Configuration configuration = (closure.isEmpty() || (!entered.isEmpty() && entered.peek().getLength() <= closure.peek().getLength()))
+                        ? entered.poll() : closure.poll();
+                int state = configuration.getState();
+                if (visitedStamps[state] == position + 1) {
+                    continue;
+                }
+                visitedStamps[state] = position + 1;
+                if (budget != null && ++numberOfExplored == CONFIGURATIONS_PER_REPORT) {
+                    // Each configuration is charged once as it is explored, the queues hold at most every one explored
+                    if (!budget.charge(numberOfExplored, (long) numberOfExplored * CONFIGURATION_SIZE, position)) {
+                        return null;
+                    }
+                    numberOfExplored = 0;
+                }
+                if (position == length && automaton.isAccepting(state)) {
+                    return configuration;
+                }
+                if (symbol != CompiledAutomaton.NONE) {
+                    for (int i = automaton.getTransitionsStart(state, symbol); i < automaton.getTransitionsEnd(state, symbol); i++) {
+                        int target = automaton.getTarget(i);
+                        // Configurations are explored by increasing path length, so the first to enter a state is shortest
+                        if (enteredStamps[target] != position + 2) {
+                            enteredStamps[target] = position + 2;
+                            enteredNext.add(new Configuration(target, position + 1, automaton.getTransitionId(i), configuration));
+                        }
+                    }
+                }
+                for (int i = automaton.getTransitionsStart(state, CompiledAutomaton.EPSILON); i < automaton.getTransitionsEnd(state, CompiledAutomaton.EPSILON); i++) {
+                    int target = automaton.getTarget(i);
+                    if (visitedStamps[target] != position + 1) {
+                        closure.add(new Configuration(target, position, automaton.getTransitionId(i), configuration));
+                    }
+                }
+            }
+            entered = enteredNext;
+        }
+        return null;
+    }
+
+    private int closeUnderEpsilon(int position, int count) {
+        // The buffer doubles up as the queue of states whose empty word transitions still need to be followed
+        for (int head = 0; head < count; head++) {
+            int state = buffer[head];
+            for (int i = automaton.getTransitionsStart(state, CompiledAutomaton.EPSILON); i < automaton.getTransitionsEnd(state, CompiledAutomaton.EPSILON); i++) {
+                int target = automaton.getTarget(i);
+                if (stamps[target] != position) {
+                    stamps[target] = position;
+                    buffer[count++] = target;
+                }
+            }
+        }
+        return count;
+    }
+
+    int getReverseEpsilonStart(int state) {
+        return reverseEpsilonOffsets[state];
+    }
+
+    int getReverseEpsilonEnd(int state) {
+        return reverseEpsilonOffsets[state + 1];
+    }
+
+    int getReverseEpsilonSource(int index) {
+        return reverseEpsilonSources[index];
+    }
+}
@@ -0,0 +1,207 @@
+package main.java.engine;
+
+import java.util.Arrays;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Converts a {@link CompiledAutomaton} into an equivalent deterministic automaton without empty word transitions,
+ * using the subset construction. Only the subsets reachable from the initial state are built, and they are stored
+ * as sorted runs of a single {@code int[]} pool so that automata with many states remain cheap to determinise.
+ * The result is partial: a missing transition leads to the (implicit) dead state. Its states are labelled
+ * Q0, Q1, ... in the order they are discovered, Q0 being the initial state.
+ * </p>
+ * <p>
+ * The number of subsets can be exponential in the number of states, so the construction can be run within a
+ * {@link SearchBudget}, to which every DFA state built is reported as an explored configuration.
+ * </p>
+ */
+public final class Determiniser {
+    // Approximate cost of a DFA state besides its set, i.e. its offset, hash, hash slots and builder entries, in bytes
+    private static final int STATE_OVERHEAD_BYTES = 8 * Integer.BYTES;
+
+    private final CompiledAutomaton automaton;
+    private final SearchBudget budget;
+
+    // State sets of the DFA states, the set of DFA state i is setPool[setOffsets[i] .. setOffsets[i + 1])
+    private int[] setPool = new int[64];
+    private int[] setOffsets = new int[17];
+    private int[] setHashes = new int[16];
+    private int numberOfSets;
+    private int[] hashTable = new int[32];
+
+    // Scratch space for computing a single set
+    private final int[] buffer;
+    private final int[] stamps;
+    private int currentStamp;
+
+    private Determiniser(CompiledAutomaton automaton, SearchBudget budget) {
+        this.automaton = automaton;
+        this.budget = budget;
+        buffer = new int[automaton.getNumberOfStates()];
+        stamps = new int[automaton.getNumberOfStates()];
+        Arrays.fill(hashTable, CompiledAutomaton.NONE);
+    }
+
+    /**
+     * Builds a deterministic automaton which accepts the same words as the specified automaton.
+     *
+     * @param automaton to determinise
+     * @return the deterministic {@code CompiledAutomaton}
+     */
+    public static CompiledAutomaton determinise(CompiledAutomaton automaton) {
+        return determinise(automaton, null);
+    }
+
+    /**
+     * Builds a deterministic automaton which accepts the same words as the specified automaton within a budget.
+     *
+     * @param automaton to determinise
+     * @param budget    to report the DFA states built to, or {@code null} for an unlimited construction
+     * @return the deterministic {@code CompiledAutomaton}, or {@code null} if the budget was exhausted
+     */
+    public static CompiledAutomaton determinise(CompiledAutomaton automaton, SearchBudget budget) {
+        return new Determiniser(automaton, budget).build();
+    }
+
+    private CompiledAutomaton build() {
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int numberOfSymbols = automaton.getNumberOfSymbols();
+        // Add the symbols in the same order so that their ids are preserved
+        for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+            builder.addSymbol(automaton.getSymbol(symbol));
+        }
+        if (!automaton.hasInitialState()) {
+            return builder.build();
+        }
+
+        int count = 0;
+        currentStamp++;
+        stamps[automaton.getInitialState()] = currentStamp;
+        buffer[count++] = automaton.getInitialState();
+        intern(closeAndSort(count));
+        builder.setInitialState(builder.addState("Q0", isAccepting(0)));
+
+        // DFA states are numbered in the order they are discovered, so the sets double as the work queue
+        int numberOfReportedSets = 0;
+        for (int set = 0; set < numberOfSets; set++) {
+            if (budget != null) {
+                // The sets discovered since the last report are charged, which also checks the time and cancellation
+                long bytes = (long) (setOffsets[numberOfSets] - setOffsets[numberOfReportedSets]) * Integer.BYTES
+                        + (long) (numberOfSets - numberOfReportedSets) * STATE_OVERHEAD_BYTES;
+                if (!budget.charge(numberOfSets - numberOfReportedSets, bytes, 0)) {
+                    return null;
+                }
+                numberOfReportedSets = numberOfSets;
+            }
+            for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+                count = 0;
+                currentStamp++;
+                for (int i = setOffsets[set]; i < setOffsets[set + 1]; i++) {
+                    int state = setPool[i];
+                    for (int k = automaton.getTransitionsStart(state, symbol); k < automaton.getTransitionsEnd(state, symbol); k++) {
+                        int target = automaton.getTarget(k);
+                        if (stamps[target] != currentStamp) {
+                            stamps[target] = currentStamp;
+                            buffer[count++] = target;
+                        }
+                    }
+                }
+                if (count == 0) {
+                    continue;
+                }
+                int numberOfSetsBefore = numberOfSets;
+                int target = intern(closeAndSort(count));
+                if (target == numberOfSetsBefore) {
+                    builder.addState("Q" + target, isAccepting(target));
+                }
+                builder.addTransition(set, symbol, target);
+            }
+        }
+        return builder.build();
+    }
+
+    private int closeAndSort(int count) {
+        // The buffer doubles as the queue of the breadth first search over empty word transitions
+        for (int head = 0; head < count; head++) {
+            int state = buffer[head];
+            for (int k = automaton.getTransitionsStart(state, CompiledAutomaton.EPSILON); k < automaton.getTransitionsEnd(state, CompiledAutomaton.EPSILON); k++) {
+                int target = automaton.getTarget(k);
+                if (stamps[target] != currentStamp) {
+                    stamps[target] = currentStamp;
+                    buffer[count++] = target;
+                }
+            }
+        }
+        Arrays.sort(buffer, 0, count);
+        return count;
+    }
+
+    private boolean isAccepting(int set) {
+        for (int i = setOffsets[set]; i < setOffsets[set + 1]; i++) {
+            if (automaton.isAccepting(setPool[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int intern(int count) {
+        int hash = 1;
+        for (int i = 0; i < count; i++) {
+            hash = hash * 31 + buffer[i];
+        }
+        hash ^= hash >>> 16;
+
+        int slot = hash & (hashTable.length - 1);
+        while (hashTable[slot] != CompiledAutomaton.NONE) {
+            int set = hashTable[slot];
+            if (setHashes[set] == hash && isSet(set, count)) {
+                return set;
+            }
+            slot = (slot + 1) & (hashTable.length - 1);
+        }
+
+        int set = numberOfSets++;
+        if (setOffsets[set] + count > setPool.length) {
+            setPool = Arrays.copyOf(setPool, Math.max(setPool.length * 2, setOffsets[set] + count));
+        }
+        if (set + 2 > setOffsets.length) {
+            setOffsets = Arrays.copyOf(setOffsets, setOffsets.length * 2);
+            setHashes = Arrays.copyOf(setHashes, setOffsets.length);
+        }
+        System.arraycopy(buffer, 0, setPool, setOffsets[set], count);
+        setOffsets[set + 1] = setOffsets[set] + count;
+        setHashes[set] = hash;
+        hashTable[slot] = set;
+        // Keep the hash table at most half full
+        if (numberOfSets * 2 > hashTable.length) {
+            rehash();
+        }
+        return set;
+    }
+
+    private boolean isSet(int set, int count) {
+        if (setOffsets[set + 1] - setOffsets[set] != count) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (setPool[setOffsets[set] + i] != buffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        hashTable = new int[hashTable.length * 2];
+        Arrays.fill(hashTable, CompiledAutomaton.NONE);
+        for (int set = 0; set < numberOfSets; set++) {
+            int slot = setHashes[set] & (hashTable.length - 1);
+            while (hashTable[slot] != CompiledAutomaton.NONE) {
+                slot = (slot + 1) & (hashTable.length - 1);
+            }
+            hashTable[slot] = set;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package main.java.engine;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * State-set tables of a {@link CompiledAutomaton}, stored as {@code long[]} bitsets of {@link #getWordsPerSet()}
+ * words each. For every state the table holds its ε-closure, and for every (state, symbol) pair the ε-closure of the
+ * states reachable by consuming the symbol. Simulating a step on a set of states is then a word-wise OR of the
+ * successor rows of its members.
+ * </p>
+ * <p>
+ * Rows are only computed the first time they are used and then cached, so the table costs a reference per
+ * (state, symbol) pair plus the rows actually visited, rather than a full bitset for every pair up front. Rows without
+ * any states share a single empty row, and a row holding the closure of a single target shares that closure.
+ * Computed rows are never modified, so the table can be used by several threads at once.
+ * </p>
+ */
+public final class EpsilonClosureTable {
+    private final CompiledAutomaton automaton;
+    private final int numberOfStates;
+    private final int numberOfSymbols;
+    private final int wordsPerSet;
+    private final long[] emptySet;
+    private final AtomicReferenceArray<long[]> closures;
+    private final AtomicReferenceArray<long[]> successors;
+    private final long[] acceptingStates;
+
+    /**
+     * Initialises the tables of the specified automaton, whose rows are computed as they are used.
+     *
+     * @param automaton to compute the closures of
+     * @throws IllegalArgumentException if the automaton has too many (state, symbol) pairs to be indexed
+     */
+    public EpsilonClosureTable(CompiledAutomaton automaton) {
+        this.automaton = automaton;
+        numberOfStates = automaton.getNumberOfStates();
+        numberOfSymbols = automaton.getNumberOfSymbols();
+        long numberOfRows = (long) numberOfStates * numberOfSymbols;
+        if (numberOfRows > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("The automaton has too many (state, symbol) pairs: " + numberOfRows);
+        }
+        wordsPerSet = Math.max(1, (numberOfStates + 63) >>> 6);
+        emptySet = new long[wordsPerSet];
+        closures = new AtomicReferenceArray<>(numberOfStates);
+        successors = new AtomicReferenceArray<>((int) numberOfRows);
+        acceptingStates = new long[wordsPerSet];
+        for (int state = 0; state < numberOfStates; state++) {
+            if (automaton.isAccepting(state)) {
+                acceptingStates[state >>> 6] |= 1L << state;
+            }
+        }
+    }
+
+    private long[] getClosure(int state) {
+        long[] closure = closures.get(state);
+        if (closure == null) {
+            closure = computeClosure(state);
+            // Racing threads compute equal rows, so whichever is published first is kept
+            if (!closures.compareAndSet(state, null, closure)) {
+                closure = closures.get(state);
+            }
+        }
+        return closure;
+    }
+
+    private long[] computeClosure(int state) {
+        long[] closure = new long[wordsPerSet];
+        closure[state >>> 6] |= 1L << state;
+        int[] queue = new int[numberOfStates];
+        queue[0] = state;
+        int count = 1;
+        for (int head = 0; head < count; head++) {
+            int current = queue[head];
+            for (int i = automaton.getTransitionsStart(current, CompiledAutomaton.EPSILON); i < automaton.getTransitionsEnd(current, CompiledAutomaton.EPSILON); i++) {
+                int target = automaton.getTarget(i);
+                long bit = 1L << target;
+                if ((closure[target >>> 6] & bit) == 0) {
+                    closure[target >>> 6] |= bit;
+                    queue[count++] = target;
+                }
+            }
+        }
+        return closure;
+    }
+
+    // The successor row of the empty word is always empty, as it is already accounted for by the closures
+    private long[] getSuccessors(int state, int symbol) {
+        int row = state * numberOfSymbols + symbol;
+        long[] set = successors.get(row);
+        if (set == null) {
+            set = computeSuccessors(state, symbol);
+            if (!successors.compareAndSet(row, null, set)) {
+                set = successors.get(row);
+            }
+        }
+        return set;
+    }
+
+    private long[] computeSuccessors(int state, int symbol) {
+        int start = automaton.getTransitionsStart(state, symbol);
+        int end = automaton.getTransitionsEnd(state, symbol);
+        if (symbol == CompiledAutomaton.EPSILON || start == end) {
+            return emptySet;
+        }
+        if (end - start == 1) {
+            return getClosure(automaton.getTarget(start));
+        }
+        long[] set = new long[wordsPerSet];
+        for (int i = start; i < end; i++) {
+            long[] closure = getClosure(automaton.getTarget(i));
+            for (int word = 0; word < wordsPerSet; word++) {
+                set[word] |= closure[word];
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Get the number of {@code long} words used by each state set.
+     *
+     * @return the number of words per set
+     */
+    public int getWordsPerSet() {
+        return wordsPerSet;
+    }
+
+    /**
+     * Adds the ε-closure of the specified state to the specified set.
+     *
+     * @param state id of the state
+     * @param set   bitset of {@link #getWordsPerSet()} words to add the closure to
+     */
+    public void addClosure(int state, long[] set) {
+        long[] closure = getClosure(state);
+        for (int word = 0; word < wordsPerSet; word++) {
+            set[word] |= closure[word];
+        }
+    }
+
+    /**
+     * Adds the states reachable from the specified state by consuming the specified symbol, closed under empty word
+     * transitions, to the specified set.
+     *
+     * @param state  id of the state
+     * @param symbol id of the symbol, not {@link CompiledAutomaton#EPSILON}
+     * @param set    bitset of {@link #getWordsPerSet()} words to add the successors to
+     */
+    public void addSuccessors(int state, int symbol, long[] set) {
+        long[] successorSet = getSuccessors(state, symbol);
+        for (int word = 0; word < wordsPerSet; word++) {
+            set[word] |= successorSet[word];
+        }
+    }
+
+    /**
+     * Computes the ε-closed set of states reachable from any state in the source set by consuming the specified
+     * symbol. Does not allocate once the rows it needs have been computed.
+     *
+     * @param source bitset of the current states
+     * @param symbol id of the symbol, or {@link CompiledAutomaton#NONE} for a symbol unknown to the automaton
+     * @param target bitset to store the result in, which must not be the source
+     * @return <tt>true</tt> if the resulting set is non-empty
+     */
+    public boolean step(long[] source, int symbol, long[] target) {
+        long nonEmpty = 0;
+        for (int word = 0; word < wordsPerSet; word++) {
+            target[word] = 0;
+        }
+        if (symbol == CompiledAutomaton.NONE || symbol == CompiledAutomaton.EPSILON) {
+            return false;
+        }
+        for (int word = 0; word < wordsPerSet; word++) {
+            long bits = source[word];
+            while (bits != 0) {
+                int state = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                long[] successorSet = getSuccessors(state, symbol);
+                for (int w = 0; w < wordsPerSet; w++) {
+                    target[w] |= successorSet[w];
+                }
+            }
+        }
+        for (int word = 0; word < wordsPerSet; word++) {
+            nonEmpty |= target[word];
+        }
+        return nonEmpty != 0;
+    }
+
+    /**
+     * Checks whether the specified set contains an accepting state.
+     *
+     * @param set bitset of states
+     * @return <tt>true</tt> if any state in the set is accepting
+     */
+    public boolean containsAcceptingState(long[] set) {
+        for (int word = 0; word < wordsPerSet; word++) {
+            if ((set[word] & acceptingStates[word]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,156 @@
+package main.java.engine;
+
+import java.util.Arrays;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Strongly connected components of the empty word transitions of a {@link CompiledAutomaton}, found once with
+ * Tarjan's algorithm. A component is cyclic if it has more than one state or a state with an empty word transition to
+ * itself, in which case a computation can loop through its states forever without consuming any input. Whether an
+ * empty word transition enters such a loop is then decided in O(1) rather than by scanning the path taken so far.
+ * Components are numbered in reverse topological order, i.e. every empty word transition leads to a component with
+ * the same or a lower number.
+ * </p>
+ */
+public final class EpsilonComponents {
+    private final int[] components;
+    private final boolean[] isCyclic;
+    private final int numberOfComponents;
+
+    /**
+     * Computes the components of the specified automaton.
+     *
+     * @param automaton to compute the components of
+     */
+    public EpsilonComponents(CompiledAutomaton automaton) {
+        int numberOfStates = automaton.getNumberOfStates();
+        components = new int[numberOfStates];
+        Arrays.fill(components, CompiledAutomaton.NONE);
+        boolean[] isCyclicByComponent = new boolean[numberOfStates];
+        boolean[] hasSelfLoop = new boolean[numberOfStates];
+
+        int[] indices = new int[numberOfStates];
+        int[] lowLinks = new int[numberOfStates];
+        Arrays.fill(indices, CompiledAutomaton.NONE);
+        boolean[] isOnStack = new boolean[numberOfStates];
+        int[] stack = new int[numberOfStates];
+        int stackSize = 0;
+        // The recursion of Tarjan's algorithm is replaced by a call stack of states and their transition cursors
+        int[] callStack = new int[numberOfStates];
+        int[] cursors = new int[numberOfStates];
+        int nextIndex = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < numberOfStates; root++) {
+            if (indices[root] != CompiledAutomaton.NONE) {
+                continue;
+            }
+            int depth = 0;
+            callStack[0] = root;
+            cursors[0] = automaton.getTransitionsStart(root, CompiledAutomaton.EPSILON);
+            indices[root] = lowLinks[root] = nextIndex++;
+            stack[stackSize++] = root;
+            isOnStack[root] = true;
+
+            while (depth >= 0) {
+                int state = callStack[depth];
+                if (cursors[depth] < automaton.getTransitionsEnd(state, CompiledAutomaton.EPSILON)) {
+                    int target = automaton.getTarget(cursors[depth]++);
+                    if (target == state) {
+                        hasSelfLoop[state] = true;
+                    }
+                    if (indices[target] == CompiledAutomaton.NONE) {
+                        depth++;
+                        callStack[depth] = target;
+                        cursors[depth] = automaton.getTransitionsStart(target, CompiledAutomaton.EPSILON);
+                        indices[target] = lowLinks[target] = nextIndex++;
+                        stack[stackSize++] = target;
+                        isOnStack[target] = true;
+                    } else if (isOnStack[target]) {
+                        lowLinks[state] = Math.min(lowLinks[state], indices[target]);
+                    }
+                    continue;
+                }
+
+                if (lowLinks[state] == indices[state]) {
+                    // The state is the root of a component, which is made up of the states above it on the stack
+                    int size = 0;
+                    boolean isCyclicComponent = false;
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        isOnStack[member] = false;
+                        components[member] = componentCount;
+                        isCyclicComponent |= hasSelfLoop[member];
+                        size++;
+                    } while (member != state);
+                    isCyclicByComponent[componentCount] = size > 1 || isCyclicComponent;
+                    componentCount++;
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callStack[depth];
+                    lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[state]);
+                }
+            }
+        }
+        numberOfComponents = componentCount;
+        isCyclic = Arrays.copyOf(isCyclicByComponent, componentCount);
+    }
+
+    /**
+     * Get the number of components, every state belongs to exactly one of them.
+     *
+     * @return the number of components
+     */
+    public int getNumberOfComponents() {
+        return numberOfComponents;
+    }
+
+    /**
+     * Get the component which the specified state belongs to.
+     *
+     * @param state id of the state
+     * @return the component id
+     */
+    public int getComponent(int state) {
+        return components[state];
+    }
+
+    /**
+     * Checks whether the specified state lies on a cycle of empty word transitions.
+     *
+     * @param state id of the state
+     * @return <tt>true</tt> if the state can reach itself without consuming any input
+     */
+    public boolean isOnCycle(int state) {
+        return isCyclic[components[state]];
+    }
+
+    /**
+     * Checks whether an empty word transition between the specified states lies on a cycle, i.e. whether a
+     * computation taking it can return to where it came from without consuming any input.
+     *
+     * @param from id of the state the transition leaves
+     * @param to   id of the state the transition enters
+     * @return <tt>true</tt> if the transition lies on a cycle of empty word transitions
+     */
+    public boolean isOnCycle(int from, int to) {
+        return components[from] == components[to] && isCyclic[components[from]];
+    }
+
+    /**
+     * Checks whether there is any cycle of empty word transitions.
+     *
+     * @return <tt>true</tt> if some computation can loop forever without consuming any input
+     */
+    public boolean hasCycles() {
+        for (boolean isComponentCyclic : isCyclic) {
+            if (isComponentCyclic) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
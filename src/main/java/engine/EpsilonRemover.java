@@ -0,0 +1,132 @@
+package main.java.engine;
+
+import java.util.Arrays;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Converts a {@link CompiledAutomaton} into an equivalent automaton without empty word transitions. Unlike the subset
+ * construction the states are kept as they are: a state gets a transition on a symbol to every state which can be
+ * entered by consuming that symbol from its ε-closure, and it is accepting if its ε-closure contains an accepting
+ * state. The result therefore has the same state ids, labels, symbols and initial state as the original automaton,
+ * and is no larger than it apart from the added transitions.
+ * </p>
+ */
+public final class EpsilonRemover {
+    private EpsilonRemover() {
+    }
+
+    /**
+     * Builds an automaton without empty word transitions which accepts the same words as the specified automaton.
+     *
+     * @param automaton to remove the empty word transitions of
+     * @return the ε-free {@code CompiledAutomaton}
+     */
+    public static CompiledAutomaton removeEpsilonTransitions(CompiledAutomaton automaton) {
+        int numberOfStates = automaton.getNumberOfStates();
+        int numberOfSymbols = automaton.getNumberOfSymbols();
+        boolean[] accepting = getAcceptingClosures(automaton);
+
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        // Add the symbols and states in the same order so that their ids are preserved
+        for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+            builder.addSymbol(automaton.getSymbol(symbol));
+        }
+        for (int state = 0; state < numberOfStates; state++) {
+            builder.addState(automaton.getStateLabel(state), accepting[state]);
+        }
+        if (automaton.hasInitialState()) {
+            builder.setInitialState(automaton.getInitialState());
+        }
+
+        // Only the closure of the state being processed is kept, so the memory used is linear in the number of states
+        int[] closure = new int[numberOfStates];
+        int[] closureStamps = new int[numberOfStates];
+        int[] targetStamps = new int[numberOfStates];
+        int currentTargetStamp = 0;
+        for (int state = 0; state < numberOfStates; state++) {
+            int size = computeClosure(automaton, state, closure, closureStamps);
+            for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+                currentTargetStamp++;
+                for (int c = 0; c < size; c++) {
+                    int member = closure[c];
+                    int end = automaton.getTransitionsEnd(member, symbol);
+                    for (int t = automaton.getTransitionsStart(member, symbol); t < end; t++) {
+                        int target = automaton.getTarget(t);
+                        if (targetStamps[target] != currentTargetStamp) {
+                            targetStamps[target] = currentTargetStamp;
+                            builder.addTransition(state, symbol, target);
+                        }
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Stores the ε-closure of the specified state at the start of the buffer.
+     *
+     * @return the size of the closure
+     */
+    private static int computeClosure(CompiledAutomaton automaton, int state, int[] closure, int[] closureStamps) {
+        int size = 0;
+        closure[size++] = state;
+        closureStamps[state] = state + 1;
+        for (int i = 0; i < size; i++) {
+            int member = closure[i];
+            int end = automaton.getTransitionsEnd(member, CompiledAutomaton.EPSILON);
+            for (int t = automaton.getTransitionsStart(member, CompiledAutomaton.EPSILON); t < end; t++) {
+                int target = automaton.getTarget(t);
+                if (closureStamps[target] != state + 1) {
+                    closureStamps[target] = state + 1;
+                    closure[size++] = target;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Decides for every state whether its ε-closure contains an accepting state in O(n + m), by propagating acceptance
+     * through the components of the empty word transitions. As the components are numbered in reverse topological
+     * order, every component a transition leads to has been decided before the component it leaves.
+     */
+    private static boolean[] getAcceptingClosures(CompiledAutomaton automaton) {
+        int numberOfStates = automaton.getNumberOfStates();
+        EpsilonComponents components = automaton.getEpsilonComponents();
+        int numberOfComponents = components.getNumberOfComponents();
+
+        // Counting sort of the states by their component
+        int[] memberOffsets = new int[numberOfComponents + 1];
+        for (int state = 0; state < numberOfStates; state++) {
+            memberOffsets[components.getComponent(state) + 1]++;
+        }
+        for (int component = 0; component < numberOfComponents; component++) {
+            memberOffsets[component + 1] += memberOffsets[component];
+        }
+        int[] members = new int[numberOfStates];
+        int[] nextFreeSlot = Arrays.copyOf(memberOffsets, numberOfComponents);
+        for (int state = 0; state < numberOfStates; state++) {
+            members[nextFreeSlot[components.getComponent(state)]++] = state;
+        }
+
+        boolean[] isComponentAccepting = new boolean[numberOfComponents];
+        for (int component = 0; component < numberOfComponents; component++) {
+            for (int m = memberOffsets[component]; m < memberOffsets[component + 1] && !isComponentAccepting[component]; m++) {
+                int member = members[m];
+                isComponentAccepting[component] = automaton.isAccepting(member);
+                int end = automaton.getTransitionsEnd(member, CompiledAutomaton.EPSILON);
+                for (int t = automaton.getTransitionsStart(member, CompiledAutomaton.EPSILON); t < end; t++) {
+                    isComponentAccepting[component] |= isComponentAccepting[components.getComponent(automaton.getTarget(t))];
+                }
+            }
+        }
+
+        boolean[] accepting = new boolean[numberOfStates];
+        for (int state = 0; state < numberOfStates; state++) {
+            accepting[state] = isComponentAccepting[components.getComponent(state)];
+        }
+        return accepting;
+    }
+}
@@ -0,0 +1,114 @@
+package main.java.engine;
+
+import main.java.shared.Unicode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Reads a finite automaton saved in the .fsm file format straight into a {@link CompiledAutomaton}, without any of the
+ * visual components created when loading a file into the toolkit. State ids follow the order of the states in the
+ * file, and the on-screen positions of the states and transitions are ignored.
+ * </p>
+ */
+public final class FsmFileReader {
+    private static final Pattern loadBracesPattern = Pattern.compile("(?<=\\{)[^\\{]+(?=\\})");
+    private static final Pattern loadArrayPattern = Pattern.compile("(?<=\\[)[^\\[]+(?=\\])");
+
+    private FsmFileReader() {
+    }
+
+    /**
+     * Reads the specified .fsm file.
+     *
+     * @param file to be read
+     * @return the {@code CompiledAutomaton} saved in the file
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public static CompiledAutomaton read(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Reads a finite automaton in the .fsm file format from the specified reader.
+     *
+     * @param reader to read from, which is not closed
+     * @return the {@code CompiledAutomaton} which was read
+     * @throws IOException if the input cannot be read or is corrupt
+     */
+    public static CompiledAutomaton read(Reader reader) throws IOException {
+        BufferedReader bufferedReader = (reader instanceof BufferedReader) ? (BufferedReader) reader : new BufferedReader(reader);
+        String statesLine = "";
+        String initialStateLine = "";
+        String acceptingStatesLine = "";
+        String transitionsLine = "";
+        String lineFromFile;
+        while ((lineFromFile = bufferedReader.readLine()) != null) {
+            if (lineFromFile.startsWith("states=")) statesLine = lineFromFile;
+            else if (lineFromFile.startsWith("initialState=")) initialStateLine = lineFromFile;
+            else if (lineFromFile.startsWith("acceptingStates=")) acceptingStatesLine = lineFromFile;
+            else if (lineFromFile.startsWith("transitions=")) transitionsLine = lineFromFile;
+        }
+
+        try {
+            return compile(statesLine, initialStateLine, acceptingStatesLine, transitionsLine);
+        } catch (RuntimeException e) {
+            throw new IOException("Unable to read the finite automaton, seems to be corrupt!", e);
+        }
+    }
+
+    private static CompiledAutomaton compile(String statesLine, String initialStateLine, String acceptingStatesLine, String transitionsLine) {
+        Set<String> acceptingStates = new HashSet<>();
+        Matcher matcher = loadArrayPattern.matcher(acceptingStatesLine);
+        if (matcher.find()) {
+            for (String label : matcher.group().split(",")) {
+                acceptingStates.add(label.trim());
+            }
+        }
+
+        // States must be added first, so that ids follow their order in the file
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        Map<String, Integer> stateIds = new HashMap<>();
+        matcher = loadBracesPattern.matcher(statesLine);
+        while (matcher.find()) {
+            String label = matcher.group().split(",")[0];
+            if (!stateIds.containsKey(label)) {
+                stateIds.put(label, builder.addState(label, acceptingStates.contains(label)));
+            }
+        }
+
+        String initialState = initialStateLine.substring(initialStateLine.indexOf('=') + 1).trim();
+        builder.setInitialState(stateIds.getOrDefault(initialState, CompiledAutomaton.NONE));
+
+        Set<String> addedTransitions = new HashSet<>();
+        matcher = loadBracesPattern.matcher(transitionsLine);
+        while (matcher.find()) {
+            String[] content = matcher.group().split(",");
+            int from = stateIds.getOrDefault(content[0], CompiledAutomaton.NONE);
+            int to = stateIds.getOrDefault(content[2], CompiledAutomaton.NONE);
+            String symbol = content[1];
+            // Skip transitions which could never be taken or which are duplicates, as the toolkit does when loading
+            if (from == CompiledAutomaton.NONE || to == CompiledAutomaton.NONE || (!symbol.equals(Unicode.EPSILON) && symbol.length() != 1)
+                    || !addedTransitions.add(content[0] + "," + symbol + "," + content[2])) {
+                continue;
+            }
+            int symbolId = symbol.equals(Unicode.EPSILON) ? CompiledAutomaton.EPSILON : builder.addSymbol(symbol.charAt(0));
+            builder.addTransition(from, symbolId, to);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,280 @@
+package main.java.engine;
+
+import java.util.Arrays;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Minimises a deterministic {@link CompiledAutomaton} using Hopcroft's partition refinement algorithm, which runs in
+ * O(n·|Σ|·log n). Blocks of the partition are kept as contiguous ranges of a single permutation of the states, so a
+ * block is split in place by moving its marked states to the front of its range.
+ * The result is partial: the block of states from which no accepting state is reachable is removed. Its states are
+ * labelled Q0, Q1, ... in breadth first order from the initial state Q0.
+ * </p>
+ */
+public final class HopcroftMinimiser {
+    private final int numberOfStates;
+    private final int numberOfSymbols;
+    // Complete transition function, including a sink state, indexed by state * numberOfSymbols + symbol
+    private final int[] delta;
+    private final boolean[] accepting;
+    // Predecessors of (state, symbol) are sources[sourceOffsets[state * numberOfSymbols + symbol] .. sourceOffsets[state * numberOfSymbols + symbol + 1])
+    private int[] sourceOffsets;
+    private int[] sources;
+
+    // Partition of the states, block b consists of elements[blockStart[b] .. blockEnd[b])
+    private final int[] elements;
+    private final int[] locations;
+    private final int[] blockOf;
+    private final int[] blockStart;
+    private final int[] blockEnd;
+    private final int[] numberOfMarked;
+    private int numberOfBlocks;
+
+    // Pending splitters as (block, symbol) pairs
+    private final boolean[] isPending;
+    private int[] pendingBlocks = new int[16];
+    private int[] pendingSymbols = new int[16];
+    private int numberOfPending;
+
+    private HopcroftMinimiser(CompiledAutomaton automaton, int[] reachableStates, int numberOfReachableStates) {
+        numberOfSymbols = automaton.getNumberOfSymbols();
+        // The extra state is a sink, which makes the transition function complete
+        numberOfStates = numberOfReachableStates + 1;
+        int sink = numberOfReachableStates;
+        delta = new int[numberOfStates * numberOfSymbols];
+        Arrays.fill(delta, sink);
+        accepting = new boolean[numberOfStates];
+        for (int state = 0; state < automaton.getNumberOfStates(); state++) {
+            int from = reachableStates[state];
+            if (from == CompiledAutomaton.NONE) {
+                continue;
+            }
+            accepting[from] = automaton.isAccepting(state);
+            for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+                int start = automaton.getTransitionsStart(state, symbol);
+                if (start != automaton.getTransitionsEnd(state, symbol)) {
+                    delta[from * numberOfSymbols + symbol] = reachableStates[automaton.getTarget(start)];
+                }
+            }
+        }
+
+        elements = new int[numberOfStates];
+        locations = new int[numberOfStates];
+        blockOf = new int[numberOfStates];
+        blockStart = new int[numberOfStates];
+        blockEnd = new int[numberOfStates];
+        numberOfMarked = new int[numberOfStates];
+        isPending = new boolean[numberOfStates * numberOfSymbols];
+    }
+
+    /**
+     * Builds the minimal deterministic automaton which accepts the same words as the specified automaton.
+     *
+     * @param automaton deterministic automaton to minimise, as produced by {@link Determiniser}
+     * @return the minimal {@code CompiledAutomaton}
+     * @throws IllegalArgumentException if the automaton is not deterministic
+     */
+    public static CompiledAutomaton minimise(CompiledAutomaton automaton) {
+        for (int state = 0; state < automaton.getNumberOfStates(); state++) {
+            for (int symbol = 0; symbol < automaton.getNumberOfSymbols(); symbol++) {
+                int numberOfTransitions = automaton.getTransitionsEnd(state, symbol) - automaton.getTransitionsStart(state, symbol);
+                if (numberOfTransitions > 1 || (symbol == CompiledAutomaton.EPSILON && numberOfTransitions > 0)) {
+                    throw new IllegalArgumentException("The automaton must be deterministic to be minimised");
+                }
+            }
+        }
+
+        // Number the states reachable from the initial state, in breadth first order
+        int[] reachableStates = new int[automaton.getNumberOfStates()];
+        Arrays.fill(reachableStates, CompiledAutomaton.NONE);
+        int[] queue = new int[automaton.getNumberOfStates()];
+        int count = 0;
+        if (automaton.hasInitialState()) {
+            reachableStates[automaton.getInitialState()] = count;
+            queue[count++] = automaton.getInitialState();
+        }
+        for (int head = 0; head < count; head++) {
+            int state = queue[head];
+            for (int i = automaton.getOutgoingTransitionsStart(state); i < automaton.getOutgoingTransitionsEnd(state); i++) {
+                int target = automaton.getTarget(i);
+                if (reachableStates[target] == CompiledAutomaton.NONE) {
+                    reachableStates[target] = count;
+                    queue[count++] = target;
+                }
+            }
+        }
+
+        return new HopcroftMinimiser(automaton, reachableStates, count).build(automaton, count > 0);
+    }
+
+    private CompiledAutomaton build(CompiledAutomaton automaton, boolean hasInitialState) {
+        computePredecessors();
+        refine();
+
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+            builder.addSymbol(automaton.getSymbol(symbol));
+        }
+        if (!hasInitialState) {
+            return builder.build();
+        }
+
+        // Number the blocks in breadth first order from the block of the initial state (state 0)
+        int deadBlock = blockOf[numberOfStates - 1];
+        int[] newIds = new int[numberOfBlocks];
+        Arrays.fill(newIds, CompiledAutomaton.NONE);
+        int[] queue = new int[numberOfBlocks];
+        int count = 0;
+        newIds[blockOf[0]] = builder.addState("Q0", accepting[0]);
+        queue[count++] = blockOf[0];
+        builder.setInitialState(0);
+        for (int head = 0; head < count; head++) {
+            int block = queue[head];
+            int representative = elements[blockStart[block]];
+            for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+                int target = blockOf[delta[representative * numberOfSymbols + symbol]];
+                if (target == deadBlock) {
+                    continue;
+                }
+                if (newIds[target] == CompiledAutomaton.NONE) {
+                    newIds[target] = builder.addState("Q" + count, accepting[elements[blockStart[target]]]);
+                    queue[count++] = target;
+                }
+                builder.addTransition(newIds[block], symbol, newIds[target]);
+            }
+        }
+        return builder.build();
+    }
+
+    private void computePredecessors() {
+        sourceOffsets = new int[numberOfStates * numberOfSymbols + 1];
+        for (int state = 0; state < numberOfStates; state++) {
+            for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+                sourceOffsets[delta[state * numberOfSymbols + symbol] * numberOfSymbols + symbol + 1]++;
+            }
+        }
+        for (int row = 0; row < numberOfStates * numberOfSymbols; row++) {
+            sourceOffsets[row + 1] += sourceOffsets[row];
+        }
+        sources = new int[sourceOffsets[numberOfStates * numberOfSymbols]];
+        int[] nextFreeSlot = Arrays.copyOf(sourceOffsets, sourceOffsets.length - 1);
+        for (int state = 0; state < numberOfStates; state++) {
+            for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+                sources[nextFreeSlot[delta[state * numberOfSymbols + symbol] * numberOfSymbols + symbol]++] = state;
+            }
+        }
+    }
+
+    private void refine() {
+        // Start with the accepting states followed by the rejecting states
+        int numberOfAccepting = 0;
+        for (int state = 0; state < numberOfStates; state++) {
+            if (accepting[state]) {
+                numberOfAccepting++;
+            }
+        }
+        int nextAccepting = 0;
+        int nextRejecting = numberOfAccepting;
+        for (int state = 0; state < numberOfStates; state++) {
+            int location = accepting[state] ? nextAccepting++ : nextRejecting++;
+            elements[location] = state;
+            locations[state] = location;
+        }
+        if (numberOfAccepting > 0) {
+            addBlock(0, numberOfAccepting);
+        }
+        if (numberOfAccepting < numberOfStates) {
+            addBlock(numberOfAccepting, numberOfStates);
+        }
+        if (numberOfBlocks == 2) {
+            int smallerBlock = (numberOfAccepting <= numberOfStates - numberOfAccepting) ? 0 : 1;
+            for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+                addPending(smallerBlock, symbol);
+            }
+        }
+
+        int[] splitter = new int[numberOfStates];
+        int[] touchedBlocks = new int[numberOfStates];
+        while (numberOfPending > 0) {
+            numberOfPending--;
+            int block = pendingBlocks[numberOfPending];
+            int symbol = pendingSymbols[numberOfPending];
+            isPending[block * numberOfSymbols + symbol] = false;
+
+            // Copy the splitter, as marking may reorder its range
+            int size = blockEnd[block] - blockStart[block];
+            System.arraycopy(elements, blockStart[block], splitter, 0, size);
+            int numberOfTouched = 0;
+            for (int i = 0; i < size; i++) {
+                int row = splitter[i] * numberOfSymbols + symbol;
+                for (int k = sourceOffsets[row]; k < sourceOffsets[row + 1]; k++) {
+                    int source = sources[k];
+                    int sourceBlock = blockOf[source];
+                    if (numberOfMarked[sourceBlock] == 0) {
+                        touchedBlocks[numberOfTouched++] = sourceBlock;
+                    }
+                    mark(source, sourceBlock);
+                }
+            }
+
+            for (int i = 0; i < numberOfTouched; i++) {
+                split(touchedBlocks[i]);
+            }
+        }
+    }
+
+    private void addBlock(int start, int end) {
+        int block = numberOfBlocks++;
+        blockStart[block] = start;
+        blockEnd[block] = end;
+        for (int i = start; i < end; i++) {
+            blockOf[elements[i]] = block;
+        }
+    }
+
+    private void mark(int state, int block) {
+        // Swap the state with the first unmarked state of its block
+        int location = locations[state];
+        int firstUnmarked = blockStart[block] + numberOfMarked[block];
+        int other = elements[firstUnmarked];
+        elements[location] = other;
+        locations[other] = location;
+        elements[firstUnmarked] = state;
+        locations[state] = firstUnmarked;
+        numberOfMarked[block]++;
+    }
+
+    private void split(int block) {
+        int marked = numberOfMarked[block];
+        numberOfMarked[block] = 0;
+        if (marked == blockEnd[block] - blockStart[block]) {
+            return;
+        }
+        // The marked states form the new block, and the remaining states stay in the old one
+        int start = blockStart[block];
+        blockStart[block] = start + marked;
+        int newBlock = numberOfBlocks;
+        addBlock(start, start + marked);
+
+        int oldSize = blockEnd[block] - blockStart[block];
+        for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+            if (isPending[block * numberOfSymbols + symbol] || marked <= oldSize) {
+                addPending(newBlock, symbol);
+            } else {
+                addPending(block, symbol);
+            }
+        }
+    }
+
+    private void addPending(int block, int symbol) {
+        if (numberOfPending == pendingBlocks.length) {
+            pendingBlocks = Arrays.copyOf(pendingBlocks, numberOfPending * 2);
+            pendingSymbols = Arrays.copyOf(pendingSymbols, numberOfPending * 2);
+        }
+        pendingBlocks[numberOfPending] = block;
+        pendingSymbols[numberOfPending] = symbol;
+        numberOfPending++;
+        isPending[block * numberOfSymbols + symbol] = true;
+    }
+}
@@ -0,0 +1,281 @@
+package main.java.engine;
+
+import java.util.Arrays;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Deterministic view of a {@link CompiledAutomaton} which is built lazily by the subset construction. A DFA state
+ * (an ε-closed set of NFA states) is only created the first time it is visited, and every computed transition is
+ * memoized, so repeatedly testing words on the same automaton runs at close to DFA speed without ever building the
+ * full (possibly exponential) determinised automaton.
+ * </p>
+ * <p>
+ * The memory used by the cache is bounded. When adding a DFA state would exceed the budget, the whole cache is
+ * flushed and rebuilt from the states in use. A lazy DFA reuses its buffers and is therefore not thread-safe.
+ * </p>
+ * <p>
+ * The budget only covers the DFA states and transitions cached by this lazy DFA. The NFA successor sets it steps
+ * through belong to the automaton's {@link EpsilonClosureTable}, which is shared by every lazy DFA of the automaton
+ * and is not counted. That table only computes the rows which are used, so its size follows the NFA states actually
+ * visited rather than the whole automaton.
+ * </p>
+ */
+public final class LazyDfa {
+    /**
+     * Memory budget used when none is specified, in bytes. Excludes the automaton's {@link EpsilonClosureTable}.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 8L * 1024 * 1024;
+    /**
+     * DFA state representing the empty set of NFA states, from which no word is accepted.
+     */
+    public static final int DEAD_STATE = -1;
+
+    private static final int UNKNOWN = -2;
+    // Approximate cost of the hash table slots kept per cached state, in bytes
+    private static final int HASH_SLOT_BYTES = 2 * Integer.BYTES;
+
+    private final CompiledAutomaton automaton;
+    private final EpsilonClosureTable table;
+    private final int wordsPerSet;
+    private final int numberOfSymbols;
+    private final long memoryBudget;
+    private final long bytesPerState;
+
+    private int numberOfStates;
+    private long[] sets;
+    private boolean[] accepting;
+    private int[] transitions;
+    private int[] hashTable;
+    private int startState;
+    private int numberOfFlushes;
+
+    private final long[] scratchSource;
+    private final long[] scratchTarget;
+
+    /**
+     * Initialises a lazy DFA for the specified automaton using the default memory budget.
+     *
+     * @param automaton to determinise lazily
+     */
+    public LazyDfa(CompiledAutomaton automaton) {
+        this(automaton, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * Initialises a lazy DFA for the specified automaton.
+     *
+     * @param automaton    to determinise lazily
+     * @param memoryBudget maximum number of bytes the cached DFA states and transitions should use, excluding the
+     *                     automaton's shared {@code EpsilonClosureTable}
+     */
+    public LazyDfa(CompiledAutomaton automaton, long memoryBudget) {
+        this.automaton = automaton;
+        this.memoryBudget = memoryBudget;
+        table = automaton.getEpsilonClosureTable();
+        wordsPerSet = table.getWordsPerSet();
+        numberOfSymbols = automaton.getNumberOfSymbols();
+        bytesPerState = (long) wordsPerSet * Long.BYTES + (long) numberOfSymbols * Integer.BYTES + 1 + HASH_SLOT_BYTES;
+        scratchSource = new long[wordsPerSet];
+        scratchTarget = new long[wordsPerSet];
+        flush();
+    }
+
+    /**
+     * Get the automaton this DFA is built from.
+     *
+     * @return the {@code CompiledAutomaton}
+     */
+    public CompiledAutomaton getAutomaton() {
+        return automaton;
+    }
+
+    /**
+     * Get the DFA state which represents the ε-closure of the initial state.
+     *
+     * @return the start state, or {@link #DEAD_STATE} if the automaton has no initial state
+     */
+    public int getStartState() {
+        if (startState == UNKNOWN) {
+            Arrays.fill(scratchTarget, 0);
+            if (automaton.hasInitialState()) {
+                table.addClosure(automaton.getInitialState(), scratchTarget);
+            }
+            startState = intern(scratchTarget);
+        }
+        return startState;
+    }
+
+    /**
+     * Get the DFA state reached by consuming the specified symbol, computing and caching it if necessary.
+     * The returned state may have been created after a flush, in which case previously returned states (other than
+     * the returned one) are no longer valid.
+     *
+     * @param state  the current DFA state
+     * @param symbol id of the symbol to consume, or {@link CompiledAutomaton#NONE}
+     * @return the next DFA state, or {@link #DEAD_STATE}
+     */
+    public int next(int state, int symbol) {
+        if (state == DEAD_STATE || symbol == CompiledAutomaton.NONE || symbol == CompiledAutomaton.EPSILON) {
+            return DEAD_STATE;
+        }
+        int cached = transitions[state * numberOfSymbols + symbol];
+        if (cached != UNKNOWN) {
+            return cached;
+        }
+
+        System.arraycopy(sets, state * wordsPerSet, scratchSource, 0, wordsPerSet);
+        table.step(scratchSource, symbol, scratchTarget);
+        int flushes = numberOfFlushes;
+        int target = intern(scratchTarget);
+        if (numberOfFlushes != flushes) {
+            // The cache was flushed while interning, so the source state has to be re-created before linking it
+            flushes = numberOfFlushes;
+            state = intern(scratchSource);
+            target = intern(scratchTarget);
+            if (numberOfFlushes != flushes) {
+                // The budget cannot hold both states, so the transition is not cached
+                return target;
+            }
+        }
+        transitions[state * numberOfSymbols + symbol] = target;
+        return target;
+    }
+
+    /**
+     * Checks whether the specified DFA state contains an accepting NFA state.
+     *
+     * @param state the DFA state
+     * @return <tt>true</tt> if the state is accepting
+     */
+    public boolean isAccepting(int state) {
+        return state != DEAD_STATE && accepting[state];
+    }
+
+    /**
+     * Processes the whole of the specified word from the start state.
+     *
+     * @param word to be processed
+     * @return <tt>true</tt> if the word is accepted
+     */
+    public boolean matches(CharSequence word) {
+        int state = getStartState();
+        for (int i = 0; i < word.length() && state != DEAD_STATE; i++) {
+            state = next(state, automaton.getSymbolId(word.charAt(i)));
+        }
+        return isAccepting(state);
+    }
+
+    /**
+     * Get the number of DFA states currently cached.
+     *
+     * @return the number of cached states
+     */
+    public int getNumberOfCachedStates() {
+        return numberOfStates;
+    }
+
+    /**
+     * Get the number of times the cache has been flushed because it exceeded its memory budget.
+     *
+     * @return the number of flushes
+     */
+    public int getNumberOfFlushes() {
+        return numberOfFlushes;
+    }
+
+    /**
+     * Get the approximate number of bytes used by the cached states and transitions, which is what the memory budget
+     * is compared against.
+     *
+     * @return the memory in use, in bytes
+     */
+    public long getMemoryUsage() {
+        return numberOfStates * bytesPerState;
+    }
+
+    private boolean isSet(int state, long[] set) {
+        int offset = state * wordsPerSet;
+        for (int word = 0; word < wordsPerSet; word++) {
+            if (sets[offset + word] != set[word]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int intern(long[] set) {
+        long hash = 0;
+        for (int word = 0; word < wordsPerSet; word++) {
+            hash |= set[word];
+        }
+        if (hash == 0) {
+            return DEAD_STATE;
+        }
+
+        int slot = hashSet(set) & (hashTable.length - 1);
+        while (hashTable[slot] != DEAD_STATE) {
+            if (isSet(hashTable[slot], set)) {
+                return hashTable[slot];
+            }
+            slot = (slot + 1) & (hashTable.length - 1);
+        }
+
+        if ((numberOfStates + 1) * bytesPerState > memoryBudget && numberOfStates > 0) {
+            flush();
+            numberOfFlushes++;
+            return intern(set);
+        }
+        if (numberOfStates == accepting.length) {
+            grow();
+            return intern(set);
+        }
+
+        int state = numberOfStates++;
+        System.arraycopy(set, 0, sets, state * wordsPerSet, wordsPerSet);
+        accepting[state] = table.containsAcceptingState(set);
+        Arrays.fill(transitions, state * numberOfSymbols, (state + 1) * numberOfSymbols, UNKNOWN);
+        hashTable[slot] = state;
+        return state;
+    }
+
+    private int hashSet(long[] set) {
+        long hash = 1;
+        for (int word = 0; word < wordsPerSet; word++) {
+            hash = hash * 31 + set[word];
+        }
+        // Spread the bits as the table is indexed by the low bits
+        hash ^= hash >>> 32;
+        return (int) (hash ^ (hash >>> 16));
+    }
+
+    private void flush() {
+        int capacity = 16;
+        numberOfStates = 0;
+        sets = new long[capacity * wordsPerSet];
+        accepting = new boolean[capacity];
+        transitions = new int[capacity * numberOfSymbols];
+        hashTable = new int[capacity * 2];
+        Arrays.fill(hashTable, DEAD_STATE);
+        startState = UNKNOWN;
+    }
+
+    private void grow() {
+        int capacity = accepting.length * 2;
+        sets = Arrays.copyOf(sets, capacity * wordsPerSet);
+        accepting = Arrays.copyOf(accepting, capacity);
+        transitions = Arrays.copyOf(transitions, capacity * numberOfSymbols);
+        // Re-insert every state into a larger hash table, keeping it at most half full
+        hashTable = new int[capacity * 2];
+        Arrays.fill(hashTable, DEAD_STATE);
+        long[] set = new long[wordsPerSet];
+        for (int state = 0; state < numberOfStates; state++) {
+            System.arraycopy(sets, state * wordsPerSet, set, 0, wordsPerSet);
+            int slot = hashSet(set) & (hashTable.length - 1);
+            while (hashTable[slot] != DEAD_STATE) {
+                slot = (slot + 1) & (hashTable.length - 1);
+            }
+            hashTable[slot] = state;
+        }
+    }
+}
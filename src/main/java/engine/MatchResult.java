@@ -0,0 +1,452 @@
+package main.java.engine;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Result of processing an input word with a {@link ConfigurationSetMatcher}. Stores the set of states reachable at
+ * every input position and reconstructs the accepting or rejecting computation paths on demand.
+ * </p>
+ * <p>
+ * A computation path ends when it has consumed the whole input word (in which case it may also continue through
+ * empty word transitions), or when it gets stuck without any applicable transition. Paths never revisit a
+ * configuration, so paths that loop through empty word transitions are not listed.
+ * </p>
+ */
+public final class MatchResult {
+    private final ConfigurationSetMatcher matcher;
+    private final CompiledAutomaton automaton;
+    private final CharSequence word;
+    private final int[] symbols;
+    private final int[][] layers;
+    private final boolean isAccepted;
+    private final boolean isComplete;
+
+    // Lazily computed, for each kind of path, whether a configuration can reach the end of such a path
+    private boolean[][] canReachAcceptingEnd;
+    private boolean[][] canReachRejectingEnd;
+    private BigInteger numberOfAcceptingPaths;
+    private BigInteger numberOfRejectingPaths;
+    private boolean isAcceptingPathsCounted;
+    private boolean isRejectingPathsCounted;
+
+    MatchResult(ConfigurationSetMatcher matcher, CharSequence word, int[] symbols, int[][] layers, boolean isAccepted, boolean isComplete) {
+        this.matcher = matcher;
+        this.automaton = matcher.getAutomaton();
+        this.word = word;
+        this.symbols = symbols;
+        this.layers = layers;
+        this.isAccepted = isAccepted;
+        this.isComplete = isComplete;
+    }
+
+    /**
+     * Checks whether the whole word was processed. An incomplete result only describes the configurations reachable
+     * up to {@link #getNumberOfProcessedSymbols()}, and its paths cannot be listed or counted.
+     *
+     * @return <tt>false</tt> if the search budget was exhausted before the end of the word
+     */
+    public boolean isComplete() {
+        return isComplete;
+    }
+
+    /**
+     * Get the number of input symbols for which the reachable configurations were computed.
+     *
+     * @return the length of the word, or less if the result is incomplete
+     */
+    public int getNumberOfProcessedSymbols() {
+        return layers.length - 1;
+    }
+
+    /**
+     * Checks whether the processed word was accepted.
+     *
+     * @return <tt>true</tt> if there exists an accepting computation path, always <tt>false</tt> for an incomplete result
+     */
+    public boolean isAccepted() {
+        return isAccepted;
+    }
+
+    /**
+     * Get the word that was processed.
+     *
+     * @return the input word
+     */
+    public CharSequence getWord() {
+        return word;
+    }
+
+    /**
+     * Get the automaton the word was processed on.
+     *
+     * @return the {@code CompiledAutomaton}
+     */
+    public CompiledAutomaton getAutomaton() {
+        return automaton;
+    }
+
+    /**
+     * Get the ids of the states reachable after consuming the specified number of input symbols, in ascending order.
+     *
+     * @param position number of input symbols consumed
+     * @return array of state ids, which must not be modified
+     */
+    public int[] getReachableStates(int position) {
+        return layers[position];
+    }
+
+    /**
+     * Get the total number of reachable (state, input position) configurations.
+     *
+     * @return the number of configurations
+     */
+    public long getNumberOfConfigurations() {
+        long numberOfConfigurations = 0;
+        for (int[] layer : layers) {
+            numberOfConfigurations += layer.length;
+        }
+        return numberOfConfigurations;
+    }
+
+    /**
+     * Get an iterator over the accepting computation paths, each path is represented by its last configuration.
+     *
+     * @return lazy {@code PathIterator} over the accepting paths
+     * @throws IllegalStateException if the result is incomplete
+     */
+    public PathIterator getAcceptingPaths() {
+        checkComplete();
+        if (canReachAcceptingEnd == null) {
+            canReachAcceptingEnd = computeCanReachEnd(true);
+        }
+        return new PathIterator(true, canReachAcceptingEnd);
+    }
+
+    /**
+     * Get an iterator over the rejecting computation paths (including paths which got stuck), each path is
+     * represented by its last configuration.
+     *
+     * @return lazy {@code PathIterator} over the rejecting paths
+     * @throws IllegalStateException if the result is incomplete
+     */
+    public PathIterator getRejectingPaths() {
+        checkComplete();
+        if (canReachRejectingEnd == null) {
+            canReachRejectingEnd = computeCanReachEnd(false);
+        }
+        return new PathIterator(false, canReachRejectingEnd);
+    }
+
+    /**
+     * Counts the accepting computation paths without enumerating them.
+     *
+     * @return the number of paths listed by {@link #getAcceptingPaths()}, or {@code null} if they can loop through
+     * empty word transitions, in which case there are infinitely many
+     * @throws IllegalStateException if the result is incomplete
+     */
+    public BigInteger getNumberOfAcceptingPaths() {
+        if (!isAcceptingPathsCounted) {
+            getAcceptingPaths();
+            numberOfAcceptingPaths = countPaths(true, canReachAcceptingEnd);
+            isAcceptingPathsCounted = true;
+        }
+        return numberOfAcceptingPaths;
+    }
+
+    /**
+     * Counts the rejecting computation paths (including paths which got stuck) without enumerating them.
+     *
+     * @return the number of paths listed by {@link #getRejectingPaths()}, or {@code null} if they can loop through
+     * empty word transitions, in which case there are infinitely many
+     * @throws IllegalStateException if the result is incomplete
+     */
+    public BigInteger getNumberOfRejectingPaths() {
+        if (!isRejectingPathsCounted) {
+            getRejectingPaths();
+            numberOfRejectingPaths = countPaths(false, canReachRejectingEnd);
+            isRejectingPathsCounted = true;
+        }
+        return numberOfRejectingPaths;
+    }
+
+    /**
+     * Checks whether a computation path may end at the specified configuration with the specified outcome.
+     *
+     * @param state       id of the state
+     * @param position    number of input symbols consumed
+     * @param isAccepting <tt>true</tt> to check for an accepting end, <tt>false</tt> for a rejecting end
+     * @return <tt>true</tt> if a path may end at this configuration
+     */
+    public boolean isPathEnd(int state, int position, boolean isAccepting) {
+        if (position == symbols.length) {
+            return automaton.isAccepting(state) == isAccepting;
+        }
+        return !isAccepting && isStuck(state, position);
+    }
+
+    private void checkComplete() {
+        if (!isComplete) {
+            throw new IllegalStateException("The paths of an incomplete result are unknown");
+        }
+    }
+
+    private boolean isStuck(int state, int position) {
+        int symbol = symbols[position];
+        boolean hasSymbolTransition = symbol != CompiledAutomaton.NONE && automaton.getTransitionsStart(state, symbol) != automaton.getTransitionsEnd(state, symbol);
+        return !hasSymbolTransition && automaton.getTransitionsStart(state, CompiledAutomaton.EPSILON) == automaton.getTransitionsEnd(state, CompiledAutomaton.EPSILON);
+    }
+
+    private int indexInLayer(int state, int position) {
+        return Arrays.binarySearch(layers[position], state);
+    }
+
+    private boolean[][] computeCanReachEnd(boolean isAccepting) {
+        boolean[][] canReachEnd = new boolean[layers.length][];
+        int[] queue = new int[automaton.getNumberOfStates()];
+        for (int position = layers.length - 1; position >= 0; position--) {
+            int[] layer = layers[position];
+            boolean[] marks = new boolean[layer.length];
+            canReachEnd[position] = marks;
+            int count = 0;
+            for (int j = 0; j < layer.length; j++) {
+                int state = layer[j];
+                if (isPathEnd(state, position, isAccepting) || canReachEndBySymbol(canReachEnd, state, position)) {
+                    marks[j] = true;
+                    queue[count++] = state;
+                }
+            }
+            // Propagate backwards along the empty word transitions within this position
+            for (int head = 0; head < count; head++) {
+                int state = queue[head];
+                for (int i = matcher.getReverseEpsilonStart(state); i < matcher.getReverseEpsilonEnd(state); i++) {
+                    int source = matcher.getReverseEpsilonSource(i);
+                    int index = indexInLayer(source, position);
+                    if (index >= 0 && !marks[index]) {
+                        marks[index] = true;
+                        queue[count++] = source;
+                    }
+                }
+            }
+        }
+        return canReachEnd;
+    }
+
+    private BigInteger countPaths(boolean isAccepting, boolean[][] canReachEnd) {
+        // The number of paths from a configuration is the sum over its successors, plus one if a path may end there
+        BigInteger[] nextCounts = null;
+        for (int position = layers.length - 1; position >= 0; position--) {
+            int[] layer = layers[position];
+            boolean[] marks = canReachEnd[position];
+            BigInteger[] counts = new BigInteger[layer.length];
+            int[] order = orderByEpsilonTransitions(position, marks);
+            if (order == null) {
+                return null;
+            }
+
+            int symbol = (position < symbols.length) ? symbols[position] : CompiledAutomaton.NONE;
+            for (int k = order.length - 1; k >= 0; k--) {
+                int j = order[k];
+                int state = layer[j];
+                BigInteger count = isPathEnd(state, position, isAccepting) ? BigInteger.ONE : BigInteger.ZERO;
+                if (symbol != CompiledAutomaton.NONE) {
+                    for (int i = automaton.getTransitionsStart(state, symbol); i < automaton.getTransitionsEnd(state, symbol); i++) {
+                        int index = indexInLayer(automaton.getTarget(i), position + 1);
+                        if (index >= 0 && canReachEnd[position + 1][index]) {
+                            count = count.add(nextCounts[index]);
+                        }
+                    }
+                }
+                for (int i = automaton.getTransitionsStart(state, CompiledAutomaton.EPSILON); i < automaton.getTransitionsEnd(state, CompiledAutomaton.EPSILON); i++) {
+                    int index = indexInLayer(automaton.getTarget(i), position);
+                    if (index >= 0 && marks[index]) {
+                        count = count.add(counts[index]);
+                    }
+                }
+                counts[j] = count;
+            }
+            nextCounts = counts;
+        }
+
+        int index = automaton.hasInitialState() ? indexInLayer(automaton.getInitialState(), 0) : -1;
+        return (index >= 0 && canReachEnd[0][index]) ? nextCounts[index] : BigInteger.ZERO;
+    }
+
+    private int[] orderByEpsilonTransitions(int position, boolean[] marks) {
+        // Topologically sorts the marked configurations of a position along their empty word transitions
+        int[] layer = layers[position];
+        int[] inDegrees = new int[layer.length];
+        int numberOfMarked = 0;
+        for (int j = 0; j < layer.length; j++) {
+            if (!marks[j]) {
+                continue;
+            }
+            numberOfMarked++;
+            for (int i = automaton.getTransitionsStart(layer[j], CompiledAutomaton.EPSILON); i < automaton.getTransitionsEnd(layer[j], CompiledAutomaton.EPSILON); i++) {
+                int index = indexInLayer(automaton.getTarget(i), position);
+                if (index >= 0 && marks[index]) {
+                    inDegrees[index]++;
+                }
+            }
+        }
+
+        int[] order = new int[numberOfMarked];
+        int count = 0;
+        for (int j = 0; j < layer.length; j++) {
+            if (marks[j] && inDegrees[j] == 0) {
+                order[count++] = j;
+            }
+        }
+        for (int head = 0; head < count; head++) {
+            int state = layer[order[head]];
+            for (int i = automaton.getTransitionsStart(state, CompiledAutomaton.EPSILON); i < automaton.getTransitionsEnd(state, CompiledAutomaton.EPSILON); i++) {
+                int index = indexInLayer(automaton.getTarget(i), position);
+                if (index >= 0 && marks[index] && --inDegrees[index] == 0) {
+                    order[count++] = index;
+                }
+            }
+        }
+        // Configurations left over lie on a cycle of empty word transitions
+        return (count == numberOfMarked) ? order : null;
+    }
+
+    private boolean canReachEndBySymbol(boolean[][] canReachEnd, int state, int position) {
+        if (position == symbols.length || symbols[position] == CompiledAutomaton.NONE) {
+            return false;
+        }
+        int symbol = symbols[position];
+        for (int i = automaton.getTransitionsStart(state, symbol); i < automaton.getTransitionsEnd(state, symbol); i++) {
+            int index = indexInLayer(automaton.getTarget(i), position + 1);
+            if (index >= 0 && canReachEnd[position + 1][index]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lazily enumerates computation paths through a depth-first search of the configuration graph. Configurations
+     * which cannot lead to the end of a wanted path are never expanded.
+     */
+    public final class PathIterator implements Iterator<Configuration> {
+        private final boolean isAccepting;
+        private final boolean[][] canReachEnd;
+        private final EpsilonComponents epsilonComponents;
+        private final ArrayDeque<Frame> stack;
+        private Configuration nextPath;
+        private boolean isLoopDetected;
+
+        private PathIterator(boolean isAccepting, boolean[][] canReachEnd) {
+            this.isAccepting = isAccepting;
+            this.canReachEnd = canReachEnd;
+            epsilonComponents = automaton.getEpsilonComponents();
+            stack = new ArrayDeque<>();
+            if (automaton.hasInitialState() && canReachEnd(automaton.getInitialState(), 0)) {
+                visit(new Configuration(automaton.getInitialState(), 0));
+            }
+        }
+
+        /**
+         * Checks whether a path which loops through empty word transitions has been skipped so far.
+         *
+         * @return <tt>true</tt> if there are infinitely many paths
+         */
+        public boolean isLoopDetected() {
+            return isLoopDetected;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextPath == null && !stack.isEmpty()) {
+                advance(stack.peek());
+            }
+            return nextPath != null;
+        }
+
+        @Override
+        public Configuration next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Configuration path = nextPath;
+            nextPath = null;
+            return path;
+        }
+
+        private void visit(Configuration configuration) {
+            stack.push(new Frame(configuration));
+            if (isPathEnd(configuration.getState(), configuration.getPosition(), isAccepting)) {
+                nextPath = configuration;
+            }
+        }
+
+        private void advance(Frame frame) {
+            Configuration current = frame.configuration;
+            while (frame.cursor < frame.end) {
+                int index = frame.cursor++;
+                int target = automaton.getTarget(index);
+                int position = current.getPosition() + (frame.isConsumingSymbol ? 1 : 0);
+                if (!canReachEnd(target, position)) {
+                    continue;
+                }
+                if (!frame.isConsumingSymbol && isLooping(current, target)) {
+                    isLoopDetected = true;
+                    continue;
+                }
+                visit(new Configuration(target, position, automaton.getTransitionId(index), current));
+                return;
+            }
+            if (frame.isConsumingSymbol) {
+                // Move on to the empty word transitions once the input symbol transitions have been explored
+                frame.isConsumingSymbol = false;
+                frame.cursor = automaton.getTransitionsStart(current.getState(), CompiledAutomaton.EPSILON);
+                frame.end = automaton.getTransitionsEnd(current.getState(), CompiledAutomaton.EPSILON);
+            } else {
+                stack.pop();
+            }
+        }
+
+        private boolean canReachEnd(int state, int position) {
+            int index = indexInLayer(state, position);
+            return index >= 0 && canReachEnd[position][index];
+        }
+
+        private boolean isLooping(Configuration configuration, int target) {
+            if (!epsilonComponents.isOnCycle(configuration.getState(), target)) {
+                // A transition outside of the ε-cycles can never lead back to a configuration on the path
+                return false;
+            }
+            // Only configurations at the same input position can be revisited, and they are at the end of the path
+            for (Configuration c = configuration; c != null && c.getPosition() == configuration.getPosition(); c = c.getParent()) {
+                if (c.getState() == target) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final class Frame {
+        private final Configuration configuration;
+        private boolean isConsumingSymbol;
+        private int cursor;
+        private int end;
+
+        private Frame(Configuration configuration) {
+            this.configuration = configuration;
+            int state = configuration.getState();
+            int position = configuration.getPosition();
+            int symbol = (position < symbols.length) ? symbols[position] : CompiledAutomaton.NONE;
+            isConsumingSymbol = true;
+            if (symbol != CompiledAutomaton.NONE) {
+                cursor = automaton.getTransitionsStart(state, symbol);
+                end = automaton.getTransitionsEnd(state, symbol);
+            }
+        }
+    }
+}
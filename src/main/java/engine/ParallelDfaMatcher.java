@@ -0,0 +1,245 @@
+package main.java.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Matches a single long input on several cores at once. The automaton is minimised into a dense DFA table, and the
+ * input is split into chunks which are run in parallel. As the state a chunk starts in is not known until the
+ * previous chunks have been run, each chunk is run speculatively from every state which can be entered on the
+ * character before it, producing a mapping from start state to end state. The mappings are then stitched together
+ * from the initial state. Speculative runs which reach the same state are merged as they go, so a chunk usually
+ * costs little more than a sequential run.
+ * </p>
+ */
+public final class ParallelDfaMatcher {
+    /**
+     * Number of characters below which inputs are matched sequentially when no chunk size is specified.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    // Number of characters between attempts to merge speculative runs which have reached the same state
+    private static final int MERGE_INTERVAL = 32;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int numberOfSymbols;
+    private final int deadState;
+    private final int initialState;
+    // Complete transition table, including the dead state, indexed by state * numberOfSymbols + symbol
+    private final int[] delta;
+    private final boolean[] accepting;
+    private final int[] symbolIdsByCharacter;
+    // For every symbol, the states which can be entered by consuming it, which is where a chunk may start
+    private final int[][] possibleStartStates;
+
+    /**
+     * Initialises a parallel matcher using the common pool and the default chunk size.
+     *
+     * @param automaton to match inputs on, which is determinised and minimised
+     */
+    public ParallelDfaMatcher(CompiledAutomaton automaton) {
+        this(automaton, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Initialises a parallel matcher.
+     *
+     * @param automaton to match inputs on, which is determinised and minimised
+     * @param pool      to run the chunks on
+     * @param chunkSize minimum number of characters per chunk
+     */
+    public ParallelDfaMatcher(CompiledAutomaton automaton, ForkJoinPool pool, int chunkSize) {
+        this.pool = pool;
+        this.chunkSize = Math.max(1, chunkSize);
+        CompiledAutomaton dfa = HopcroftMinimiser.minimise(Determiniser.determinise(automaton));
+
+        numberOfSymbols = dfa.getNumberOfSymbols();
+        deadState = dfa.getNumberOfStates();
+        initialState = dfa.hasInitialState() ? dfa.getInitialState() : deadState;
+        delta = new int[(deadState + 1) * numberOfSymbols];
+        Arrays.fill(delta, deadState);
+        accepting = new boolean[deadState + 1];
+        for (int state = 0; state < deadState; state++) {
+            accepting[state] = dfa.isAccepting(state);
+            for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+                int start = dfa.getTransitionsStart(state, symbol);
+                if (start != dfa.getTransitionsEnd(state, symbol)) {
+                    delta[state * numberOfSymbols + symbol] = dfa.getTarget(start);
+                }
+            }
+        }
+
+        int maxCharacter = -1;
+        for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+            maxCharacter = Math.max(maxCharacter, dfa.getSymbol(symbol));
+        }
+        symbolIdsByCharacter = new int[maxCharacter + 1];
+        // The loop variable is an int as a char would wrap around instead of passing U+FFFF
+        for (int character = 0; character <= maxCharacter; character++) {
+            symbolIdsByCharacter[character] = Math.max(dfa.getSymbolId((char) character), 0);
+        }
+
+        // Symbol 0 stands for characters outside of the alphabet, after which only the dead state is possible
+        possibleStartStates = new int[numberOfSymbols][];
+        possibleStartStates[0] = new int[]{deadState};
+        boolean[] isPossible = new boolean[deadState + 1];
+        for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+            Arrays.fill(isPossible, false);
+            int count = 0;
+            for (int state = 0; state <= deadState; state++) {
+                int target = delta[state * numberOfSymbols + symbol];
+                if (!isPossible[target]) {
+                    isPossible[target] = true;
+                    count++;
+                }
+            }
+            possibleStartStates[symbol] = new int[count];
+            count = 0;
+            for (int state = 0; state <= deadState; state++) {
+                if (isPossible[state]) {
+                    possibleStartStates[symbol][count++] = state;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether the specified input is accepted, splitting it between the pool's workers if it is long enough.
+     *
+     * @param input to be matched
+     * @return <tt>true</tt> if the input is accepted
+     */
+    public boolean matches(CharSequence input) {
+        // Speculation only pays off when the chunks actually run at the same time
+        int numberOfChunks = (int) Math.min(pool.getParallelism() * 4L, input.length() / chunkSize);
+        if (numberOfChunks <= 1 || pool.getParallelism() == 1) {
+            return matchesSequentially(input);
+        }
+
+        // The first chunk has a known start state, so it only follows that one alongside the speculative chunks
+        List<ChunkAction> chunks = new ArrayList<>(numberOfChunks);
+        chunks.add(new ChunkAction(input, 0, (int) ((long) input.length() / numberOfChunks), new int[]{initialState}));
+        for (int i = 1; i < numberOfChunks; i++) {
+            int start = (int) ((long) input.length() * i / numberOfChunks);
+            int end = (int) ((long) input.length() * (i + 1) / numberOfChunks);
+            chunks.add(new ChunkAction(input, start, end, possibleStartStates[getSymbolId(input.charAt(start - 1))]));
+        }
+        pool.invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                invokeAll(chunks);
+            }
+        });
+
+        // The end state of each chunk picks the mapping to follow in the next chunk
+        int state = initialState;
+        for (ChunkAction chunk : chunks) {
+            if (state == deadState) {
+                return false;
+            }
+            state = chunk.getEndState(state);
+        }
+        return accepting[state];
+    }
+
+    /**
+     * Checks whether the specified input is accepted, one character at a time on the calling thread.
+     *
+     * @param input to be matched
+     * @return <tt>true</tt> if the input is accepted
+     */
+    public boolean matchesSequentially(CharSequence input) {
+        return accepting[run(input, 0, input.length(), initialState)];
+    }
+
+    private int run(CharSequence input, int start, int end, int state) {
+        for (int i = start; i < end && state != deadState; i++) {
+            state = delta[state * numberOfSymbols + getSymbolId(input.charAt(i))];
+        }
+        return state;
+    }
+
+    private int getSymbolId(char character) {
+        return (character < symbolIdsByCharacter.length) ? symbolIdsByCharacter[character] : 0;
+    }
+
+    private class ChunkAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CharSequence input;
+        private final int start;
+        private final int end;
+        private final int[] startStates;
+        // Speculative run i is followed by every start state mapped to it, and ends in runs[i]
+        private final int[] runOfStartState;
+        private int[] runs;
+
+        ChunkAction(CharSequence input, int start, int end, int[] startStates) {
+            this.input = input;
+            this.start = start;
+            this.end = end;
+            this.startStates = startStates;
+            runOfStartState = new int[deadState + 1];
+            Arrays.fill(runOfStartState, -1);
+        }
+
+        @Override
+        protected void compute() {
+            runs = startStates.clone();
+            for (int i = 0; i < startStates.length; i++) {
+                runOfStartState[startStates[i]] = i;
+            }
+            int[] runOfState = new int[deadState + 1];
+            int[] mergedRunIds = new int[runs.length];
+            int numberOfRuns = runs.length;
+
+            for (int position = start; position < end; position += MERGE_INTERVAL) {
+                int intervalEnd = Math.min(end, position + MERGE_INTERVAL);
+                for (int i = position; i < intervalEnd; i++) {
+                    int row = getSymbolId(input.charAt(i));
+                    for (int run = 0; run < numberOfRuns; run++) {
+                        runs[run] = delta[runs[run] * numberOfSymbols + row];
+                    }
+                }
+                if (numberOfRuns > 1) {
+                    numberOfRuns = merge(numberOfRuns, runOfState, mergedRunIds);
+                }
+            }
+        }
+
+        private int merge(int numberOfRuns, int[] runOfState, int[] mergedRunIds) {
+            Arrays.fill(runOfState, -1);
+            int numberOfMergedRuns = 0;
+            for (int run = 0; run < numberOfRuns; run++) {
+                int state = runs[run];
+                if (runOfState[state] == -1) {
+                    runOfState[state] = numberOfMergedRuns;
+                    runs[numberOfMergedRuns++] = state;
+                }
+                mergedRunIds[run] = runOfState[state];
+            }
+            if (numberOfMergedRuns < numberOfRuns) {
+                for (int state = 0; state <= deadState; state++) {
+                    if (runOfStartState[state] != -1) {
+                        runOfStartState[state] = mergedRunIds[runOfStartState[state]];
+                    }
+                }
+            }
+            return numberOfMergedRuns;
+        }
+
+        int getEndState(int startState) {
+            int run = runOfStartState[startState];
+            // The start state is always one which can be entered on the previous character
+            return (run == -1) ? deadState : runs[run];
+        }
+    }
+}
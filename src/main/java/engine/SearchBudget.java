@@ -0,0 +1,104 @@
+package main.java.engine;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Limits the time and memory which a search over the configurations of an automaton may use, and allows it to be
+ * cancelled from another thread. The search reports its progress to the budget, which can be read concurrently, e.g.
+ * to show the number of configurations explored so far. Once the budget is exhausted the search stops and returns
+ * whatever it has computed so far.
+ * </p>
+ */
+public final class SearchBudget {
+    /**
+     * The reason a search was stopped before it finished.
+     */
+    public enum StopReason {
+        CANCELLED, TIMED_OUT, OUT_OF_MEMORY
+    }
+
+    private final long deadline;
+    private final long memoryBudget;
+    private long memoryUsage;
+
+    private volatile boolean isCancelled;
+    private volatile StopReason stopReason;
+    private volatile long numberOfExploredConfigurations;
+    private volatile int position;
+
+    /**
+     * Initialises a budget which starts running immediately.
+     *
+     * @param timeBudget   maximum duration of the search in milliseconds
+     * @param memoryBudget maximum number of bytes the search may allocate for configurations
+     */
+    public SearchBudget(long timeBudget, long memoryBudget) {
+        this.deadline = System.nanoTime() + timeBudget * 1000000;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Requests the search to stop as soon as it next reports its progress.
+     */
+    public void cancel() {
+        isCancelled = true;
+    }
+
+    /**
+     * Get the reason the search was stopped.
+     *
+     * @return the {@code StopReason} or {@code null} if the budget has not been exhausted
+     */
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Checks whether the search was stopped before it finished.
+     *
+     * @return <tt>true</tt> if the budget has been exhausted
+     */
+    public boolean isExhausted() {
+        return stopReason != null;
+    }
+
+    /**
+     * Get the number of configurations the search has explored so far.
+     *
+     * @return the number of configurations
+     */
+    public long getNumberOfExploredConfigurations() {
+        return numberOfExploredConfigurations;
+    }
+
+    /**
+     * Get the number of input symbols consumed by the furthest configuration explored so far.
+     *
+     * @return the input position
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Records the progress of the search and checks whether it may continue.
+     *
+     * @param configurations number of configurations explored since the last report
+     * @param bytes          number of bytes allocated for them
+     * @param position       number of input symbols consumed by the furthest configuration
+     * @return <tt>true</tt> if the search may continue
+     */
+    boolean charge(int configurations, long bytes, int position) {
+        numberOfExploredConfigurations += configurations;
+        this.position = Math.max(this.position, position);
+        memoryUsage += bytes;
+        if (isCancelled) {
+            stopReason = StopReason.CANCELLED;
+        } else if (memoryUsage > memoryBudget) {
+            stopReason = StopReason.OUT_OF_MEMORY;
+        } else if (System.nanoTime() - deadline > 0) {
+            stopReason = StopReason.TIMED_OUT;
+        }
+        return stopReason == null;
+    }
+}
@@ -0,0 +1,144 @@
+package main.java.engine;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Runs an automaton over the contents of a file, treating every character of the file (including any line
+ * terminators) as an input symbol. The file is memory-mapped a region at a time and decoded into a small reusable
+ * {@link CharBuffer}, so inputs of hundreds of megabytes are processed without ever being held in a {@code String}.
+ * Characters are fed to a {@link LazyDfa}, and processing stops as soon as no state is active.
+ * A stream matcher reuses its buffers and is therefore not thread-safe.
+ * </p>
+ */
+public final class StreamMatcher {
+    private static final long MAPPED_REGION_SIZE = 64L << 20;
+    private static final int CHAR_BUFFER_SIZE = 1 << 16;
+
+    private final CompiledAutomaton automaton;
+    private final LazyDfa lazyDfa;
+    private final Charset charset;
+    private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+
+    private int state;
+    private long position;
+
+    /**
+     * Initialises a stream matcher which decodes files as UTF-8.
+     *
+     * @param automaton to run over the files
+     */
+    public StreamMatcher(CompiledAutomaton automaton) {
+        this(automaton, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Initialises a stream matcher.
+     *
+     * @param automaton to run over the files
+     * @param charset   used to decode the files
+     */
+    public StreamMatcher(CompiledAutomaton automaton, Charset charset) {
+        this.automaton = automaton;
+        this.charset = charset;
+        lazyDfa = new LazyDfa(automaton);
+    }
+
+    /**
+     * Checks whether the whole contents of the specified file is accepted.
+     *
+     * @param file to be read
+     * @return <tt>true</tt> if the contents is accepted
+     * @throws IOException if the file cannot be read or is not valid in the charset
+     */
+    public boolean matches(Path file) throws IOException {
+        run(file, null);
+        return lazyDfa.isAccepting(state);
+    }
+
+    /**
+     * Reports every position of the specified file at which the automaton is in an accepting state, i.e. every prefix
+     * of the contents which is accepted. Position n refers to the prefix made up of the first n characters.
+     *
+     * @param file      to be read
+     * @param positions consumer of the positions, in increasing order
+     * @return the number of characters processed, which is less than the length of the contents if the automaton got
+     * stuck
+     * @throws IOException if the file cannot be read or is not valid in the charset
+     */
+    public long findAcceptingPositions(Path file, LongConsumer positions) throws IOException {
+        run(file, positions);
+        return position;
+    }
+
+    private void run(Path file, LongConsumer positions) throws IOException {
+        state = lazyDfa.getStartState();
+        position = 0;
+        if (positions != null && lazyDfa.isAccepting(state)) {
+            positions.accept(0);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CharsetDecoder decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT);
+            long size = channel.size();
+            long offset = 0;
+            boolean isEndOfInput;
+            do {
+                long length = Math.min(MAPPED_REGION_SIZE, size - offset);
+                isEndOfInput = (offset + length == size);
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                CoderResult result;
+                do {
+                    result = decoder.decode(bytes, chars, isEndOfInput);
+                    if (result.isError()) {
+                        result.throwException();
+                    }
+                    if (!consumeCharacters(positions)) {
+                        return;
+                    }
+                } while (result.isOverflow());
+                // A character split across two regions is left undecoded, and the next region starts with it
+                offset += bytes.position();
+            } while (!isEndOfInput);
+
+            decoder.flush(chars);
+            consumeCharacters(positions);
+        } catch (CharacterCodingException e) {
+            throw new IOException("Unable to decode the input as " + charset.name() + " at character " + position, e);
+        }
+    }
+
+    private boolean consumeCharacters(LongConsumer positions) {
+        chars.flip();
+        try {
+            while (chars.hasRemaining()) {
+                state = lazyDfa.next(state, automaton.getSymbolId(chars.get()));
+                if (state == LazyDfa.DEAD_STATE) {
+                    return false;
+                }
+                position++;
+                if (positions != null && lazyDfa.isAccepting(state)) {
+                    positions.accept(position);
+                }
+            }
+            return true;
+        } finally {
+            chars.clear();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package main.java.model;
+
+import main.java.engine.CompiledAutomaton;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Snapshot of a {@link FiniteStateMachine} in its compiled form, together with the states and transitions which the
+ * ids of the {@link CompiledAutomaton} stand for. Ids produced by the engine, e.g. by a test running in the
+ * background, are mapped back through the snapshot they were computed on, so they refer to the right state or
+ * transition even if the finite automaton has been modified and recompiled since.
+ * </p>
+ */
+public final class CompiledFiniteStateMachine {
+	private final CompiledAutomaton automaton;
+	private final State[] states;
+	private final Transition[] transitions;
+
+	CompiledFiniteStateMachine(CompiledAutomaton automaton, State[] states, Transition[] transitions) {
+		this.automaton = automaton;
+		this.states = states;
+		this.transitions = transitions;
+	}
+
+	/**
+	 * Get the compiled automaton of this snapshot.
+	 *
+	 * @return the {@code CompiledAutomaton}
+	 */
+	public CompiledAutomaton getAutomaton() {
+		return automaton;
+	}
+
+	/**
+	 * Get the state represented by the specified id in the compiled automaton.
+	 *
+	 * @param id of the state within the {@code CompiledAutomaton}
+	 * @return the corresponding {@code State}
+	 */
+	public State getState(int id) {
+		return states[id];
+	}
+
+	/**
+	 * Get the transition represented by the specified id in the compiled automaton.
+	 *
+	 * @param id of the transition within the {@code CompiledAutomaton}
+	 * @return the corresponding {@code Transition}
+	 */
+	public Transition getTransition(int id) {
+		return transitions[id];
+	}
+}
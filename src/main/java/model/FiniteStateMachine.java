@@ -1,11 +1,21 @@
 package main.java.model;
 
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.Determiniser;
+import main.java.engine.EpsilonRemover;
+import main.java.engine.HopcroftMinimiser;
+import main.java.engine.SearchBudget;
 import main.java.shared.Unicode;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 /**
@@ -19,10 +29,25 @@ public class FiniteStateMachine {
 	private State initialState;
 	private List<State> states;
 	private List<Character> alphabet;
-	private Map<State, List<Transition>> transitions;
+	private Map<State, Set<Transition>> transitions;
+	// Secondary index of each state's outgoing transitions, grouped by their input symbol
+	private Map<State, Map<String, Set<Transition>>> transitionsBySymbol;
+	// Reverse index of the transitions going into each state
+	private Map<State, Set<Transition>> incomingTransitions;
 
     private int numberOfEmptyTransitions;
 
+	// Incremented on every change to the model, used to lazily rebuild the compiled automaton
+	private long version;
+	private long compiledVersion = -1;
+	private final List<FiniteStateMachineListener> listeners = new CopyOnWriteArrayList<>();
+	// Changes made since the outermost batch began, which are reported as a single event once it ends
+	private int batchDepth;
+	private EnumSet<FiniteStateMachineEvent.Type> batchedTypes = EnumSet.noneOf(FiniteStateMachineEvent.Type.class);
+	private List<State> batchedStates = new ArrayList<>();
+	private List<Transition> batchedTransitions = new ArrayList<>();
+	private CompiledFiniteStateMachine compiledFiniteStateMachine;
+
 	/**
 	 * Initialises the finite automaton's containers storing the states, alphabet, and transitions.
 	 */
@@ -30,6 +55,8 @@ public class FiniteStateMachine {
 		states = new ArrayList<>();
 		alphabet = new ArrayList<>();
 		transitions = new HashMap<>();
+		transitionsBySymbol = new HashMap<>();
+		incomingTransitions = new HashMap<>();
 	}
 
 	/**
@@ -42,7 +69,9 @@ public class FiniteStateMachine {
 		if (alphabet.contains(symbol)) {
 			return false;
 		}
-		return alphabet.add(symbol);
+		alphabet.add(symbol);
+		fireChange(FiniteStateMachineEvent.Type.ALPHABET_CHANGED, null, null);
+		return true;
 	}
 
 	/**
@@ -52,7 +81,11 @@ public class FiniteStateMachine {
 	 * @return <tt>true</tt> if it was successfully removed
 	 */
 	public boolean removeSymbolFromAlphabet(Character symbol) {
-		return alphabet.remove(symbol);
+		if (!alphabet.remove(symbol)) {
+			return false;
+		}
+		fireChange(FiniteStateMachineEvent.Type.ALPHABET_CHANGED, null, null);
+		return true;
 	}
 
 	/**
@@ -64,15 +97,23 @@ public class FiniteStateMachine {
 	public void addState(State state) {
 		if (states.contains(state)) {
 			return;
-		} else if (state.isInitial()) {
-			if (hasInitialState()) {
-				getInitialState().setInitial(false);
+		}
+		// Assigning the initial state is a part of the same change, so listeners are notified once
+		beginBatch();
+		try {
+			states.add(state);
+			// Initialise an index for this state's outgoing transitions
+			transitions.put(state, new LinkedHashSet<>());
+			transitionsBySymbol.put(state, new HashMap<>());
+			incomingTransitions.putIfAbsent(state, new LinkedHashSet<>());
+			// The initial state is only assigned once the state is a part of this finite automaton
+			if (state.isInitial()) {
+				setInitialState(state);
 			}
-			setInitialState(state);
+			fireChange(FiniteStateMachineEvent.Type.STATE_ADDED, state, null);
+		} finally {
+			endBatch();
 		}
-		states.add(state);
-		// Initialise an index for this state's outgoing transitions
-		transitions.put(state, new ArrayList<>());
 	}
 
 	/**
@@ -82,11 +123,31 @@ public class FiniteStateMachine {
 	 * @param state to remove from the finite automaton
 	 */
 	public void removeState(State state) {
-		if (state.isInitial()) {
-			setInitialState(null);
+		// Clearing the initial state is a part of the same change, so listeners are notified once
+		beginBatch();
+		try {
+			states.remove(state);
+			Set<Transition> removedTransitions = transitions.remove(state);
+			if (removedTransitions != null) {
+				for (Transition transition : removedTransitions) {
+					Set<Transition> targetIncomingTransitions = incomingTransitions.get(transition.getToState());
+					if (targetIncomingTransitions != null) {
+						targetIncomingTransitions.remove(transition);
+					}
+				}
+			}
+			incomingTransitions.remove(state);
+			Map<String, Set<Transition>> removedTransitionsBySymbol = transitionsBySymbol.remove(state);
+			if (removedTransitionsBySymbol != null && removedTransitionsBySymbol.containsKey(Unicode.EPSILON)) {
+				numberOfEmptyTransitions -= removedTransitionsBySymbol.get(Unicode.EPSILON).size();
+			}
+			if (state.isInitial()) {
+				setInitialState(null);
+			}
+			fireChange(FiniteStateMachineEvent.Type.STATE_REMOVED, state, null);
+		} finally {
+			endBatch();
 		}
-		states.remove(state);
-		transitions.remove(state);
 	}
 
 	/**
@@ -108,6 +169,19 @@ public class FiniteStateMachine {
 			getInitialState().setInitial(false);
 		}
 		initialState = state;
+		fireChange(FiniteStateMachineEvent.Type.INITIAL_STATE_CHANGED, state, null);
+	}
+
+	/**
+	 * Sets whether the specified state is accepting, the state should be updated through this method rather than
+	 * directly so that the compiled automaton is rebuilt.
+	 *
+	 * @param state to update
+	 * @param value to specify whether the state is an accepting state
+	 */
+	public void setAccepting(State state, boolean value) {
+		state.setAccepting(value);
+		fireChange(FiniteStateMachineEvent.Type.ACCEPTING_STATE_CHANGED, state, null);
 	}
 
 	/**
@@ -164,14 +238,16 @@ public class FiniteStateMachine {
 	 * @return <tt>true</tt> if the transition was successfully added
 	 */
 	public boolean addTransition(State state, Transition transition) {
-		List<Transition> currentTransitions = transitions.get(state);
-		if (currentTransitions.contains(transition)) {
+		if (!transitions.get(state).add(transition)) {
 			return false;
 		}
+		transitionsBySymbol.get(state).computeIfAbsent(transition.getSymbol(), symbol -> new LinkedHashSet<>()).add(transition);
+		incomingTransitions.computeIfAbsent(transition.getToState(), toState -> new LinkedHashSet<>()).add(transition);
         if (transition.getSymbol().equals(Unicode.EPSILON)) {
             numberOfEmptyTransitions++;
         }
-		return currentTransitions.add(transition);
+		fireChange(FiniteStateMachineEvent.Type.TRANSITION_ADDED, null, transition);
+		return true;
 	}
 
 	/**
@@ -182,25 +258,60 @@ public class FiniteStateMachine {
 	 * @return <tt>true</tt> if the transition was successfully removed
 	 */
 	public boolean removeTransition(State state, Transition transition) {
-		List<Transition> currentTransitions = transitions.get(state);
-		if (!currentTransitions.contains(transition)) {
+		if (!transitions.get(state).remove(transition)) {
 			return false;
 		}
+		Map<String, Set<Transition>> stateTransitionsBySymbol = transitionsBySymbol.get(state);
+		Set<Transition> symbolTransitions = stateTransitionsBySymbol.get(transition.getSymbol());
+		symbolTransitions.remove(transition);
+		if (symbolTransitions.isEmpty()) {
+			stateTransitionsBySymbol.remove(transition.getSymbol());
+		}
+		Set<Transition> targetIncomingTransitions = incomingTransitions.get(transition.getToState());
+		if (targetIncomingTransitions != null) {
+			targetIncomingTransitions.remove(transition);
+		}
         if (transition.getSymbol().equals(Unicode.EPSILON)) {
             numberOfEmptyTransitions--;
         }
-		return currentTransitions.remove(transition);
+		fireChange(FiniteStateMachineEvent.Type.TRANSITION_REMOVED, null, transition);
+		return true;
 	}
 
 	/**
-	 * Get all the transitions outgoing from the specified state.
+	 * Get all the transitions outgoing from the specified state, in the order they were added.
 	 *
 	 * @param state to get the transitions of
-	 * @return {@code List} of transitions outgoing from the specified state, or {@code null} if the state is not a
-	 * part of this finite automaton
+	 * @return unmodifiable {@code Set} of transitions outgoing from the specified state, or {@code null} if the state
+	 * is not a part of this finite automaton
 	 */
-    public List<Transition> getOutgoingTransitions(State state) {
-		return transitions.get(state);
+    public Set<Transition> getOutgoingTransitions(State state) {
+		Set<Transition> outgoingTransitions = transitions.get(state);
+		return (outgoingTransitions == null) ? null : Collections.unmodifiableSet(outgoingTransitions);
+	}
+
+	/**
+	 * Get the transitions outgoing from the specified state which make use of the specified input symbol.
+	 *
+	 * @param state  to get the transitions of
+	 * @param symbol used by the transitions
+	 * @return unmodifiable {@code Set} of the matching transitions, which is empty if there are none
+	 */
+	public Set<Transition> getOutgoingTransitions(State state, String symbol) {
+		Map<String, Set<Transition>> stateTransitionsBySymbol = transitionsBySymbol.get(state);
+		Set<Transition> symbolTransitions = (stateTransitionsBySymbol == null) ? null : stateTransitionsBySymbol.get(symbol);
+		return (symbolTransitions == null) ? Collections.emptySet() : Collections.unmodifiableSet(symbolTransitions);
+	}
+
+	/**
+	 * Get all the transitions going into the specified state, in the order they were added.
+	 *
+	 * @param state to get the transitions of
+	 * @return unmodifiable {@code Set} of transitions going into the specified state, which is empty if there are none
+	 */
+	public Set<Transition> getIncomingTransitions(State state) {
+		Set<Transition> stateIncomingTransitions = incomingTransitions.get(state);
+		return (stateIncomingTransitions == null) ? Collections.emptySet() : Collections.unmodifiableSet(stateIncomingTransitions);
 	}
 
 	/**
@@ -222,7 +333,10 @@ public class FiniteStateMachine {
 		states.clear();
 		alphabet.clear();
 		transitions.clear();
+		transitionsBySymbol.clear();
+		incomingTransitions.clear();
         numberOfEmptyTransitions = 0;
+		fireChange(FiniteStateMachineEvent.Type.CLEARED, null, null);
     }
 
     /**
@@ -234,6 +348,161 @@ public class FiniteStateMachine {
         return numberOfEmptyTransitions > 0;
     }
 
+	/**
+	 * Get the version of this finite automaton, which increases every time it is modified.
+	 *
+	 * @return the current version
+	 */
+	public synchronized long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Registers a listener to be notified of changes to this finite automaton.
+	 *
+	 * @param listener to be notified
+	 */
+	public void addListener(FiniteStateMachineListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Unregisters a previously added listener.
+	 *
+	 * @param listener to stop notifying
+	 */
+	public void removeListener(FiniteStateMachineListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Begins a batch of changes, listeners are notified of all the changes made until the matching call to
+	 * {@link #endBatch()} with a single event. Batches may be nested.
+	 */
+	public void beginBatch() {
+		batchDepth++;
+	}
+
+	/**
+	 * Ends a batch of changes, notifying the listeners once the outermost batch has ended.
+	 */
+	public void endBatch() {
+		if (batchDepth > 0 && --batchDepth == 0 && !batchedTypes.isEmpty()) {
+			FiniteStateMachineEvent event = new FiniteStateMachineEvent(this, version, batchedTypes, batchedStates, batchedTransitions);
+			batchedTypes = EnumSet.noneOf(FiniteStateMachineEvent.Type.class);
+			batchedStates = new ArrayList<>();
+			batchedTransitions = new ArrayList<>();
+			listeners.forEach(listener -> listener.onFiniteStateMachineChanged(event));
+		}
+	}
+
+	private void fireChange(FiniteStateMachineEvent.Type type, State state, Transition transition) {
+		synchronized (this) {
+			version++;
+		}
+		if (listeners.isEmpty() && batchDepth == 0) {
+			return;
+		}
+		batchedTypes.add(type);
+		if (state != null) {
+			batchedStates.add(state);
+		}
+		if (transition != null) {
+			batchedTransitions.add(transition);
+		}
+		if (batchDepth == 0) {
+			// A single change is reported as a batch of its own
+			batchDepth++;
+			endBatch();
+		}
+	}
+
+	/**
+	 * Get the compiled, primitive-indexed form of this finite automaton together with the states and transitions its
+	 * ids stand for. The compiled form is only rebuilt when the finite automaton has been modified since it was last
+	 * requested, and a snapshot is never changed once returned.
+	 *
+	 * @return the {@code CompiledFiniteStateMachine} of the current finite automaton
+	 */
+	public synchronized CompiledFiniteStateMachine getCompiledFiniteStateMachine() {
+		if (compiledVersion != version) {
+			compiledFiniteStateMachine = compile();
+			compiledVersion = version;
+		}
+		return compiledFiniteStateMachine;
+	}
+
+	/**
+	 * Get the compiled, primitive-indexed form of this finite automaton, for when its ids do not need to be mapped back
+	 * to states and transitions.
+	 *
+	 * @return the {@code CompiledAutomaton} of the current finite automaton
+	 */
+	public CompiledAutomaton getCompiledAutomaton() {
+		return getCompiledFiniteStateMachine().getAutomaton();
+	}
+
+	/**
+	 * Builds an equivalent deterministic finite automaton without empty word transitions using the subset
+	 * construction. This finite automaton is not modified.
+	 *
+	 * @param budget limiting the construction, which may build exponentially many states, or {@code null}
+	 * @return the determinised {@code CompiledAutomaton}, or {@code null} if the budget was exhausted
+	 */
+	public CompiledAutomaton determinise(SearchBudget budget) {
+		return Determiniser.determinise(getCompiledAutomaton(), budget);
+	}
+
+	/**
+	 * Builds an equivalent finite automaton without empty word transitions, which has the same states as this one.
+	 * This finite automaton is not modified.
+	 *
+	 * @return the ε-free {@code CompiledAutomaton}
+	 */
+	public CompiledAutomaton removeEpsilonTransitions() {
+		return EpsilonRemover.removeEpsilonTransitions(getCompiledAutomaton());
+	}
+
+	/**
+	 * Builds the equivalent deterministic finite automaton with the fewest states. This finite automaton is not
+	 * modified.
+	 *
+	 * @param budget limiting the subset construction which precedes the minimisation, or {@code null}
+	 * @return the minimised {@code CompiledAutomaton}, or {@code null} if the budget was exhausted
+	 */
+	public CompiledAutomaton minimise(SearchBudget budget) {
+		CompiledAutomaton dfa = determinise(budget);
+		return (dfa == null) ? null : HopcroftMinimiser.minimise(dfa);
+	}
+
+	private CompiledFiniteStateMachine compile() {
+		CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+		State[] stateIds = states.toArray(new State[0]);
+		Map<State, Integer> idsByState = new HashMap<>(stateIds.length * 2);
+		for (State state : stateIds) {
+			idsByState.put(state, builder.addState(state.getLabel(), state.isAccepting()));
+		}
+		if (hasInitialState() && idsByState.containsKey(initialState)) {
+			builder.setInitialState(idsByState.get(initialState));
+		}
+
+		List<Transition> transitionIds = new ArrayList<>();
+		for (State state : stateIds) {
+			for (Transition transition : transitions.get(state)) {
+				String symbol = transition.getSymbol();
+				Integer to = idsByState.get(transition.getToState());
+				// Transitions on anything other than a single character can never be taken, so they are not compiled
+				if (to == null || (!symbol.equals(Unicode.EPSILON) && symbol.length() != 1)) {
+					continue;
+				}
+				int symbolId = symbol.equals(Unicode.EPSILON) ? CompiledAutomaton.EPSILON : builder.addSymbol(symbol.charAt(0));
+				builder.addTransition(idsByState.get(state), symbolId, to);
+				transitionIds.add(transition);
+			}
+		}
+		return new CompiledFiniteStateMachine(builder.build(), stateIds, transitionIds.toArray(new Transition[0]));
+	}
+
 	@Override
 	public String toString() {
 		return "Size = " + states.size() + "\nInitial state = " + initialState + "\nAlphabet = " + alphabet + "\nStates = " + states + "\nTransitions = " + getAllTransitions() + "\n";
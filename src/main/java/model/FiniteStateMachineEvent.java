@@ -0,0 +1,102 @@
+package main.java.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Describes one or more changes made to a {@link FiniteStateMachine}. Changes made during a batch (see
+ * {@link FiniteStateMachine#beginBatch()}) are coalesced into a single event, which records every type of change
+ * made along with the states and transitions that were affected.
+ * </p>
+ */
+public class FiniteStateMachineEvent {
+    /**
+     * The types of change which can be made to a finite automaton.
+     */
+    public enum Type {
+        STATE_ADDED, STATE_REMOVED, TRANSITION_ADDED, TRANSITION_REMOVED, ALPHABET_CHANGED, INITIAL_STATE_CHANGED,
+        ACCEPTING_STATE_CHANGED, CLEARED
+    }
+
+    private final FiniteStateMachine source;
+    private final long version;
+    private final Set<Type> types;
+    private final List<State> states;
+    private final List<Transition> transitions;
+
+    /**
+     * Initialises the event.
+     *
+     * @param source      finite automaton which was changed
+     * @param version     of the finite automaton after the changes
+     * @param types       of the changes made
+     * @param states      affected by the changes
+     * @param transitions affected by the changes
+     */
+    FiniteStateMachineEvent(FiniteStateMachine source, long version, EnumSet<Type> types, List<State> states, List<Transition> transitions) {
+        this.source = source;
+        this.version = version;
+        this.types = Collections.unmodifiableSet(types);
+        this.states = Collections.unmodifiableList(states);
+        this.transitions = Collections.unmodifiableList(transitions);
+    }
+
+    /**
+     * Get the finite automaton which was changed.
+     *
+     * @return the source {@code FiniteStateMachine}
+     */
+    public FiniteStateMachine getSource() {
+        return source;
+    }
+
+    /**
+     * Get the version of the finite automaton once these changes were made.
+     *
+     * @return the version, as given by {@link FiniteStateMachine#getVersion()}
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the types of change this event is made up of.
+     *
+     * @return unmodifiable {@code Set} of change types
+     */
+    public Set<Type> getTypes() {
+        return types;
+    }
+
+    /**
+     * Checks whether this event includes the specified type of change.
+     *
+     * @param type of change
+     * @return <tt>true</tt> if a change of this type was made
+     */
+    public boolean hasType(Type type) {
+        return types.contains(type);
+    }
+
+    /**
+     * Get the states which were added, removed, or had their initial/accepting attribute changed.
+     *
+     * @return unmodifiable {@code List} of the affected states, in the order they were changed
+     */
+    public List<State> getStates() {
+        return states;
+    }
+
+    /**
+     * Get the transitions which were added or removed.
+     *
+     * @return unmodifiable {@code List} of the affected transitions, in the order they were changed
+     */
+    public List<Transition> getTransitions() {
+        return transitions;
+    }
+}
@@ -0,0 +1,17 @@
+package main.java.model;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Listener notified whenever a {@link FiniteStateMachine} it is registered with is changed.
+ * </p>
+ */
+@FunctionalInterface
+public interface FiniteStateMachineListener {
+    /**
+     * Called once the finite automaton has been changed, or once the outermost batch of changes has ended.
+     *
+     * @param event describing the changes
+     */
+    void onFiniteStateMachineChanged(FiniteStateMachineEvent event);
+}
@@ -93,8 +93,8 @@ public class Transition implements Comparable<Transition> {
 	@Override
     public int hashCode() {
         // Transitions are uniquely identified by the combination of their from, to, and input symbol.
-        // Hence, the sum of these attributes' hash codes can be used.
-        return from.hashCode() + symbol.hashCode() + to.hashCode();
+        // Hence, these attributes' hash codes are combined, in order so that e.g. swapped states do not collide.
+        return (31 * from.hashCode() + symbol.hashCode()) * 31 + to.hashCode();
 	}
 
 	@Override
@@ -2,6 +2,7 @@ package main.java.shared;
 
 import javafx.application.Platform;
 import javafx.collections.ObservableList;
+import javafx.geometry.Point2D;
 import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.control.Alert;
@@ -10,6 +11,7 @@ import javafx.scene.layout.Pane;
 import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Window;
+import main.java.engine.CompiledAutomaton;
 import main.java.model.FiniteStateMachine;
 import main.java.model.State;
 import main.java.model.Transition;
@@ -21,7 +23,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -62,6 +68,8 @@ public class LoadFSM {
      * @param file               that should be loaded
      */
     public static void loadFiniteStateMachineFromFile(FiniteStateMachine finiteStateMachine, Window windowOwner, Pane workspacePane, ToolkitController toolkitController, File file) {
+        // Listeners are notified of the whole file being loaded as a single change
+        finiteStateMachine.beginBatch();
         try {
             BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
             String lineFromFile;
@@ -86,6 +94,87 @@ public class LoadFSM {
                 Alert errorAlert = AlertCreator.createInitialisedAlert("Corrupt File", "Unable to load the file, seems to be corrupt!", Alert.AlertType.INFORMATION, windowOwner, Modality.WINDOW_MODAL);
                 errorAlert.showAndWait();
             });
+        } finally {
+            finiteStateMachine.endBatch();
+        }
+    }
+
+    /**
+     * Replaces the contents of the workspace with the specified compiled automaton, e.g. the result of determinising
+     * or minimising the current finite automaton. The alphabet is kept and the states are laid out in a grid.
+     *
+     * @param finiteStateMachine to load the compiled automaton into
+     * @param workspacePane      to load the compiled automaton into
+     * @param toolkitController  of the active Toolkit
+     * @param automaton          to be loaded
+     */
+    public static void loadCompiledAutomaton(FiniteStateMachine finiteStateMachine, Pane workspacePane, ToolkitController toolkitController, CompiledAutomaton automaton) {
+        loadCompiledAutomaton(finiteStateMachine, workspacePane, toolkitController, automaton, false);
+    }
+
+    /**
+     * Replaces the contents of the workspace with the specified compiled automaton. The alphabet is kept, and if
+     * requested, so are the positions of the states whose labels appear in both automata, e.g. when the compiled
+     * automaton has the same states as the current finite automaton. Any other states are laid out in a grid.
+     *
+     * @param finiteStateMachine to load the compiled automaton into
+     * @param workspacePane      to load the compiled automaton into
+     * @param toolkitController  of the active Toolkit
+     * @param automaton          to be loaded
+     * @param isKeepingPositions whether states should stay where the states with the same labels currently are
+     */
+    public static void loadCompiledAutomaton(FiniteStateMachine finiteStateMachine, Pane workspacePane, ToolkitController toolkitController, CompiledAutomaton automaton, boolean isKeepingPositions) {
+        List<Character> alphabet = new ArrayList<>(finiteStateMachine.getAlphabet());
+        Map<String, Point2D> positions = new HashMap<>();
+        if (isKeepingPositions) {
+            for (State state : finiteStateMachine.getStates()) {
+                Button btnState = (Button) state.getOnScreenVisual().getChildren().get(0);
+                positions.put(state.getLabel(), new Point2D(btnState.getLayoutX() + State.RADIUS_OF_STATE, btnState.getLayoutY() + State.RADIUS_OF_STATE));
+            }
+        }
+        finiteStateMachine.beginBatch();
+        try {
+            loadCompiledAutomatonInBatch(finiteStateMachine, workspacePane, toolkitController, automaton, alphabet, positions);
+        } finally {
+            finiteStateMachine.endBatch();
+        }
+    }
+
+    private static void loadCompiledAutomatonInBatch(FiniteStateMachine finiteStateMachine, Pane workspacePane, ToolkitController toolkitController, CompiledAutomaton automaton, List<Character> alphabet, Map<String, Point2D> positions) {
+        toolkitController.resetWorkspace();
+        alphabet.forEach(finiteStateMachine::addSymbolToAlphabet);
+
+        // Lay the states without a known position out row by row in a roughly square grid
+        int numberOfColumns = (int) Math.ceil(Math.sqrt(automaton.getNumberOfStates()));
+        double spacing = 4 * State.RADIUS_OF_STATE;
+        State[] states = new State[automaton.getNumberOfStates()];
+        for (int id = 0; id < states.length; id++) {
+            Point2D position = positions.get(automaton.getStateLabel(id));
+            double x = (position != null) ? position.getX() : spacing * (id % numberOfColumns) + 2 * State.RADIUS_OF_STATE;
+            double y = (position != null) ? position.getY() : spacing * (id / numberOfColumns) + 2 * State.RADIUS_OF_STATE;
+            toolkitController.createStateOnMouse(automaton.getStateLabel(id), x, y, true);
+        }
+        for (State state : finiteStateMachine.getStates()) {
+            int id = automaton.getStateId(state.getLabel());
+            states[id] = state;
+            setStateAttributes(toolkitController, finiteStateMachine, state, id == automaton.getInitialState(), automaton.isAccepting(id));
+        }
+
+        for (int from = 0; from < states.length; from++) {
+            for (int symbol = 0; symbol < automaton.getNumberOfSymbols(); symbol++) {
+                String symbolLabel = (symbol == CompiledAutomaton.EPSILON) ? Unicode.EPSILON : String.valueOf(automaton.getSymbol(symbol));
+                for (int i = automaton.getTransitionsStart(from, symbol); i < automaton.getTransitionsEnd(from, symbol); i++) {
+                    Transition newTransition = new Transition(states[from], symbolLabel, states[automaton.getTarget(i)]);
+                    if (finiteStateMachine.addTransition(states[from], newTransition)) {
+                        Group visual = new Group();
+                        workspacePane.getChildren().add(visual);
+                        new Arrow(finiteStateMachine, newTransition, workspacePane, visual);
+                        newTransition.setOnScreenVisual(visual);
+                        // Send the arrow behind the states
+                        visual.toBack();
+                    }
+                }
+            }
         }
     }
 
@@ -118,17 +207,21 @@ public class LoadFSM {
 
         // Locate the accepting states and initial state and update their attributes
         for (State state : finiteStateMachine.getStates()) {
-            if (Arrays.asList(acceptingStates).contains(state.getLabel())) {
-                Button btnState = (Button) state.getOnScreenVisual().getChildren().get(0);
-                btnState.setId("btnAcceptingState");
-                state.setAccepting(true);
-            }
-            if (state.getLabel().equals(initialState)) {
-                finiteStateMachine.setInitialState(state);
-                state.setInitial(true);
-                ObservableList<Node> stateGroupChildren = state.getOnScreenVisual().getChildren();
-                stateGroupChildren.add(toolkitController.generateInitialStateArrow((Button) stateGroupChildren.get(0)));
-            }
+            setStateAttributes(toolkitController, finiteStateMachine, state, state.getLabel().equals(initialState), Arrays.asList(acceptingStates).contains(state.getLabel()));
+        }
+    }
+
+    private static void setStateAttributes(ToolkitController toolkitController, FiniteStateMachine finiteStateMachine, State state, boolean isInitial, boolean isAccepting) {
+        if (isAccepting) {
+            Button btnState = (Button) state.getOnScreenVisual().getChildren().get(0);
+            btnState.setId("btnAcceptingState");
+            finiteStateMachine.setAccepting(state, true);
+        }
+        if (isInitial) {
+            finiteStateMachine.setInitialState(state);
+            state.setInitial(true);
+            ObservableList<Node> stateGroupChildren = state.getOnScreenVisual().getChildren();
+            stateGroupChildren.add(toolkitController.generateInitialStateArrow((Button) stateGroupChildren.get(0)));
         }
     }
 
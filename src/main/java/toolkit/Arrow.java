@@ -134,14 +134,15 @@ public class Arrow extends Arc {
 
         // Create a label for the transition's symbol
         lblSymbol = new Label(transition.getSymbol());
-        lblSymbol.setStyle("-fx-font-size: 12pt; -fx-font-weight: bold; -fx-text-fill: #000000;");
+        lblSymbol.setStyle("-fx-font-size: 12pt; -fx-font-weight: bold;");
         lblSymbol.setId("lblSymbol");
+        lblSymbol.getStyleClass().add("arrow-label");
 
         // Create an arrowhead and bind its location to the target state of the transition
         arrowHead = new Polygon(0, 0, 0, 28, 6, 38, -6, 38, 0, 28);
         arrowHead.layoutXProperty().bind(btnTo.layoutXProperty().add(State.RADIUS_OF_STATE));
         arrowHead.layoutYProperty().bind(btnTo.layoutYProperty().add(State.RADIUS_OF_STATE));
-        arrowHead.setStyle("-fx-fill: #000000;");
+        arrowHead.getStyleClass().add("arrow-head");
 
         // Initialise and add a rotation to the arrowhead
         arrowHeadRotation = new Rotate();
@@ -153,12 +154,15 @@ public class Arrow extends Arc {
 
         // Configure the Arc's attributes
         setStrokeWidth(2);
-        setStyle("-fx-stroke: #000000;");
+        getStyleClass().add("arrow-line");
         setFill(null);
         setType(ArcType.OPEN);
 
-        //Add the arrow to the group and apply the styling
+        //Add the arrow to the group and apply the styling, whose colours the simulation changes through pseudo-classes on the group
         group.getChildren().addAll(this, lblSymbol, arrowHead);
+        if (!group.getStyleClass().contains("arrow")) {
+            group.getStyleClass().add("arrow");
+        }
         group.applyCss();
         group.layout();
 
@@ -3,9 +3,11 @@ package main.java.toolkit;
 import com.sun.javafx.stage.StageHelper;
 import javafx.application.Platform;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Pos;
 import javafx.scene.Cursor;
 import javafx.scene.Group;
 import javafx.scene.Node;
@@ -14,22 +16,27 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonBar;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
-import javafx.scene.control.TextInputDialog;
+import javafx.scene.control.TextField;
 import javafx.scene.control.ToolBar;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Line;
 import javafx.scene.shape.Rectangle;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.SearchBudget;
 import main.java.model.FiniteStateMachine;
 import main.java.model.State;
 import main.java.model.Transition;
@@ -40,6 +47,7 @@ import main.java.shared.ExportFSM;
 import main.java.shared.FXMLManager;
 import main.java.shared.LoadFSM;
 import main.java.shared.SaveFSM;
+import main.java.shared.Unicode;
 import main.java.toolkit.alphabetDialog.AlphabetDialogController;
 import main.java.toolkit.simulationDialog.SimulationDialogController;
 import main.java.toolkit.testInputDialog.TestInputDialogController;
@@ -47,7 +55,9 @@ import main.java.toolkit.transitionsDialog.TransitionsDialogController;
 
 import java.awt.geom.Point2D;
 import java.io.IOException;
-import java.util.List;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * @author Mert Acar
@@ -224,23 +234,54 @@ public class ToolkitController {
 
 	@FXML
 	private void onTestInputWordButtonClick() {
-		TextInputDialog tid = new TextInputDialog();
-		tid.setTitle("Test Input Word");
-		tid.setHeaderText(null);
-		tid.setContentText("Enter an input word to test:");
-		tid.getDialogPane().getStylesheets().addAll(
+		Dialog<String> requestDialog = new Dialog<>();
+		requestDialog.setTitle("Test Input Word");
+		requestDialog.setHeaderText(null);
+		requestDialog.setGraphic(null);
+		requestDialog.getDialogPane().getStylesheets().addAll(
 				AlertCreator.class.getResource("/main/java/shared/genericPrompt.css").toExternalForm(),
 				AlertCreator.class.getResource("/main/java/shared/scrollbarStyling.css").toExternalForm(),
 				AlertCreator.class.getResource("/main/java/shared/buttonStyling.css").toExternalForm());
+		requestDialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
 
-		tid.getEditor().textProperty().addListener((observable, oldValue, newValue) -> {
+		TextField inputWord = new TextField();
+		inputWord.textProperty().addListener((observable, oldValue, newValue) -> {
 			// Restrict the TextField to only contain alphanumeric characters
-            if (!newValue.matches("[a-zA-Z0-9]*")) tid.getEditor().setText(oldValue);
+			if (!newValue.matches("[a-zA-Z0-9]*")) inputWord.setText(oldValue);
 		});
+		// Offer a fast mode which stops at the first accepting configuration rather than listing every path
+		CheckBox shortestPathOnly = new CheckBox("Only find a shortest accepting path");
+		// Let the user raise the limits after which a test is stopped, they are kept for the rest of the session
+		TextField timeLimit = createNumberField(TestInputDialogController.getTimeBudget() / 1000);
+		TextField memoryLimit = createNumberField(TestInputDialogController.getMemoryBudget() >> 20);
+
+		GridPane content = new GridPane();
+		content.setHgap(10);
+		content.setVgap(10);
+		content.setAlignment(Pos.CENTER_LEFT);
+		content.add(new Label("Enter an input word to test:"), 0, 0);
+		content.add(inputWord, 1, 0);
+		content.add(shortestPathOnly, 1, 1);
+		content.add(new Label("Time limit (seconds):"), 0, 2);
+		content.add(timeLimit, 1, 2);
+		content.add(new Label("Memory limit (MB):"), 0, 3);
+		content.add(memoryLimit, 1, 3);
+		requestDialog.getDialogPane().setContent(content);
+		requestDialog.setResultConverter(buttonType -> {
+			if (buttonType != ButtonType.OK) {
+				return null;
+			}
+			// Empty or zero limits leave the current ones in place
+			long seconds = parseNumberField(timeLimit);
+			long megabytes = parseNumberField(memoryLimit);
+			if (seconds > 0) TestInputDialogController.setTimeBudget(seconds * 1000);
+			if (megabytes > 0) TestInputDialogController.setMemoryBudget(megabytes << 20);
+			return inputWord.getText();
+		});
+		Platform.runLater(inputWord::requestFocus);
 
-		tid.initOwner(workspacePane.getScene().getWindow());
-		tid.initModality(Modality.WINDOW_MODAL);
-		tid.setGraphic(null);
+		requestDialog.initOwner(workspacePane.getScene().getWindow());
+		requestDialog.initModality(Modality.WINDOW_MODAL);
 
 		Dialog<String> testResultDialog = DialogCreator.createInitialisedDialog("Result", "resultIcon.png", workspacePane.getScene().getWindow(), Modality.WINDOW_MODAL);
 		testResultDialog.setResizable(true);
@@ -251,12 +292,89 @@ public class ToolkitController {
 		try {
 			FXMLLoader loader = new FXMLLoader(getClass().getResource("/main/java/toolkit/testInputDialog/testInputResults_dialog.fxml"));
 			testResultDialog.getDialogPane().setContent(loader.load());
-			loader.<TestInputDialogController>getController().initTestInputWordDialogController(finiteStateMachine, tid, testResultDialog, workspacePane);
+			loader.<TestInputDialogController>getController().initTestInputWordDialogController(finiteStateMachine, requestDialog, testResultDialog, workspacePane, shortestPathOnly.selectedProperty());
 		} catch (IOException exception) {
 			exception.printStackTrace();
 		}
 	}
 
+	private TextField createNumberField(long value) {
+		TextField numberField = new TextField(Long.toString(value));
+		numberField.textProperty().addListener((observable, oldValue, newValue) -> {
+			// Restrict the TextField to a number of at most 6 digits
+			if (!newValue.matches("[0-9]{0,6}")) numberField.setText(oldValue);
+		});
+		return numberField;
+	}
+
+	private long parseNumberField(TextField numberField) {
+		return numberField.getText().isEmpty() ? 0 : Long.parseLong(numberField.getText());
+	}
+
+	@FXML
+	private void onDeterminiseButtonClick() {
+		replaceWorkspaceWithEquivalentAutomaton("Determinise", false);
+	}
+
+	@FXML
+	private void onMinimiseButtonClick() {
+		replaceWorkspaceWithEquivalentAutomaton("Minimise", true);
+	}
+
+	@FXML
+	private void onRemoveEpsilonButtonClick() {
+		if (!finiteStateMachine.doesEmptyTransitionExist()) {
+			Alert errorAlert = AlertCreator.createInitialisedAlert("Invalid Action", "The Finite State Machine has no " + Unicode.EPSILON + "-transitions to remove!", AlertType.INFORMATION, workspacePane.getScene().getWindow(), Modality.WINDOW_MODAL);
+			Platform.runLater(errorAlert::showAndWait);
+		} else if (requestUserConfirmation("Remove " + Unicode.EPSILON + "-transitions Confirmation", "The workspace will be replaced, any unsaved work will be lost!")) {
+			// The states are unchanged, so they are kept where the user placed them
+			LoadFSM.loadCompiledAutomaton(finiteStateMachine, workspacePane, this, finiteStateMachine.removeEpsilonTransitions(), true);
+		}
+	}
+
+	private void replaceWorkspaceWithEquivalentAutomaton(String title, boolean isMinimised) {
+		if (!finiteStateMachine.hasInitialState()) {
+			Alert errorAlert = AlertCreator.createInitialisedAlert("Invalid Action", "An initial state is required to " + title.toLowerCase() + " the Finite State Machine!", AlertType.INFORMATION, workspacePane.getScene().getWindow(), Modality.WINDOW_MODAL);
+			Platform.runLater(errorAlert::showAndWait);
+		} else if (requestUserConfirmation(title + " Confirmation", "The workspace will be replaced, any unsaved work will be lost!")) {
+			// The subset construction can build exponentially many states, so it runs in the background within the
+			// same limits as testing an input word, and the workspace is only replaced once it has succeeded
+			SearchBudget budget = new SearchBudget(TestInputDialogController.getTimeBudget(), TestInputDialogController.getMemoryBudget());
+			Alert progressAlert = AlertCreator.createInitialisedAlert(title, "Building the equivalent Finite State Machine...", AlertType.INFORMATION, workspacePane.getScene().getWindow(), Modality.WINDOW_MODAL);
+			progressAlert.getButtonTypes().setAll(ButtonType.CANCEL);
+			progressAlert.setOnHidden(event -> budget.cancel());
+
+			Task<CompiledAutomaton> constructionTask = new Task<CompiledAutomaton>() {
+				@Override
+				protected CompiledAutomaton call() {
+					return isMinimised ? finiteStateMachine.minimise(budget) : finiteStateMachine.determinise(budget);
+				}
+			};
+			constructionTask.setOnSucceeded(event -> {
+				progressAlert.setOnHidden(null);
+				progressAlert.close();
+				if (constructionTask.getValue() != null) {
+					LoadFSM.loadCompiledAutomaton(finiteStateMachine, workspacePane, this, constructionTask.getValue());
+				} else if (budget.getStopReason() != SearchBudget.StopReason.CANCELLED) {
+					String reason = (budget.getStopReason() == SearchBudget.StopReason.TIMED_OUT)
+							? "it took longer than " + (TestInputDialogController.getTimeBudget() / 1000) + " seconds" : "it ran out of memory";
+					AlertCreator.createInitialisedAlert(title, "The Finite State Machine could not be " + title.toLowerCase() + "d, " + reason + "!", AlertType.INFORMATION, workspacePane.getScene().getWindow(), Modality.WINDOW_MODAL).showAndWait();
+				}
+			});
+			constructionTask.setOnFailed(event -> {
+				progressAlert.setOnHidden(null);
+				progressAlert.close();
+				constructionTask.getException().printStackTrace();
+			});
+
+			Thread constructionThread = new Thread(constructionTask);
+			constructionThread.setDaemon(true);
+			constructionThread.setName(title + " Finite State Machine");
+			constructionThread.start();
+			progressAlert.show();
+		}
+	}
+
 	@FXML
 	private void onSimulateInputWordButtonClick() {
 		// Check that the simulation dialog is not already being shown
@@ -343,7 +461,8 @@ public class ToolkitController {
 			delta.x = btnState.getLayoutX() - mouseEvent.getSceneX();
 			delta.y = btnState.getLayoutY() - mouseEvent.getSceneY();
 		});
-		btnState.setOnMouseReleased(mouseEvent -> btnState.setStyle("-fx-border-color: #000000;"));
+		// Clear the inline border colour, so that the stylesheet (and the simulation's highlighting) applies again
+		btnState.setOnMouseReleased(mouseEvent -> btnState.setStyle(""));
 		// When the user is dragging the button, change the border colour to green and update its position
 		btnState.setOnMouseDragged(mouseEvent -> {
 			btnState.setStyle("-fx-border-color: #7CFC00;");
@@ -384,12 +503,17 @@ public class ToolkitController {
 		// Update the state's appearance and attribute if the user attempts to set an existing state to be accepting
 		toggleAccepting.setOnAction(event -> {
 			btnState.setId((btnState.getId().equals("btnState")) ? "btnAcceptingState" : "btnState");
-			state.setAccepting(!state.isAccepting());
+			finiteStateMachine.setAccepting(state, !state.isAccepting());
 		});
 		// Remove all related transitions from the state if the user attempts to delete an existing state
 		delete.setOnAction(event -> {
-			removeRelatedTransitions(state);
-			finiteStateMachine.removeState(state);
+			finiteStateMachine.beginBatch();
+			try {
+				removeRelatedTransitions(state);
+				finiteStateMachine.removeState(state);
+			} finally {
+				finiteStateMachine.endBatch();
+			}
 			workspacePane.getChildren().remove(state.getOnScreenVisual());
 		});
 	}
@@ -404,13 +528,16 @@ public class ToolkitController {
 	}
 
 	private void removeRelatedTransitions(State state) {
-		List<Transition> toCheck = finiteStateMachine.getAllTransitions();
-		for(Transition t: toCheck) {
-			if(t.getToState().equals(state) || t.getFromState().equals(state)) {
-				finiteStateMachine.removeTransition(t.getFromState(), t);
-				workspacePane.getChildren().remove(t.getOnScreenVisual());
-			}
+		// Only the transitions touching this state are visited, using the finite automaton's incoming/outgoing indexes
+		Set<Transition> relatedTransitions = new LinkedHashSet<>(finiteStateMachine.getOutgoingTransitions(state));
+		relatedTransitions.addAll(finiteStateMachine.getIncomingTransitions(state));
+		Set<Node> relatedVisuals = new HashSet<>();
+		for (Transition t : relatedTransitions) {
+			finiteStateMachine.removeTransition(t.getFromState(), t);
+			relatedVisuals.add(t.getOnScreenVisual());
 		}
+		// Remove the arrows in a single pass over the workspace
+		workspacePane.getChildren().removeAll(relatedVisuals);
 	}
 
 	/**
@@ -76,9 +76,18 @@ public class AlphabetDialogController {
     @FXML
     private void onRemoveButtonClick() {
         String symbol = tfInput.getText().trim();
-        if (!symbol.isEmpty() && finiteStateMachine.removeSymbolFromAlphabet(symbol.charAt(0))) {
-            removeTransitionsUsingSymbol(tfInput.getText());
-            updateAlphabet();
+        if (symbol.isEmpty()) {
+            return;
+        }
+        // Report the symbol and its transitions being removed as one change
+        finiteStateMachine.beginBatch();
+        try {
+            if (finiteStateMachine.removeSymbolFromAlphabet(symbol.charAt(0))) {
+                removeTransitionsUsingSymbol(tfInput.getText());
+                updateAlphabet();
+            }
+        } finally {
+            finiteStateMachine.endBatch();
         }
     }
 
@@ -0,0 +1,109 @@
+package main.java.toolkit.simulationDialog;
+
+import javafx.application.Platform;
+import javafx.css.PseudoClass;
+import javafx.scene.Node;
+import main.java.model.State;
+import main.java.model.Transition;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Applies the highlighting of a simulation step to the workspace in a single runnable on the JavaFX application
+ * thread. Each step submits the full set of states and transitions which should be highlighted, and only the nodes
+ * whose highlighting differs from what is currently shown are updated. If further steps are submitted before the
+ * runnable gets to run, e.g. when the simulation is played faster than the workspace is redrawn, only the latest one
+ * is rendered and the ones in between are skipped. Nodes are highlighted by toggling a pseudo-class, whose colours
+ * are defined by the toolkit's stylesheet.
+ * </p>
+ */
+final class HighlightBatcher {
+    /**
+     * The ways a state or transition can be highlighted, in order of precedence when several paths share it.
+     */
+    enum Highlight {
+        ACCEPTED("accepted"), ACTIVE("active"), REJECTED("rejected"), STUCK("stuck");
+
+        private final PseudoClass pseudoClass;
+
+        Highlight(String pseudoClass) {
+            this.pseudoClass = PseudoClass.getPseudoClass(pseudoClass);
+        }
+
+        /**
+         * Get the highlight which takes precedence out of this and the specified highlight.
+         *
+         * @param other highlight, or {@code null}
+         * @return the highlight to show
+         */
+        Highlight merge(Highlight other) {
+            return (other == null || ordinal() < other.ordinal()) ? this : other;
+        }
+    }
+
+    private final AtomicReference<Frame> pendingFrame = new AtomicReference<>();
+    // Only accessed on the JavaFX application thread
+    private Map<State, Highlight> shownStates = new HashMap<>();
+    private Map<Transition, Highlight> shownTransitions = new HashMap<>();
+
+    /**
+     * Requests the specified states and transitions to be the only ones highlighted.
+     *
+     * @param states      to highlight, which are copied
+     * @param transitions to highlight, which are copied
+     */
+    void submit(Map<State, Highlight> states, Map<Transition, Highlight> transitions) {
+        Frame frame = new Frame(new HashMap<>(states), new HashMap<>(transitions));
+        // A runnable is only posted if none is waiting already, which then renders this frame instead
+        if (pendingFrame.getAndSet(frame) == null) {
+            Platform.runLater(this::render);
+        }
+    }
+
+    private void render() {
+        Frame frame = pendingFrame.getAndSet(null);
+        if (frame == null) {
+            return;
+        }
+        shownStates.forEach((state, highlight) -> {
+            if (frame.states.get(state) != highlight) {
+                getButton(state).pseudoClassStateChanged(highlight.pseudoClass, false);
+            }
+        });
+        frame.states.forEach((state, highlight) -> {
+            if (shownStates.get(state) != highlight) {
+                getButton(state).pseudoClassStateChanged(highlight.pseudoClass, true);
+            }
+        });
+        shownTransitions.forEach((transition, highlight) -> {
+            if (frame.transitions.get(transition) != highlight) {
+                transition.getOnScreenVisual().pseudoClassStateChanged(highlight.pseudoClass, false);
+            }
+        });
+        frame.transitions.forEach((transition, highlight) -> {
+            if (shownTransitions.get(transition) != highlight) {
+                transition.getOnScreenVisual().pseudoClassStateChanged(highlight.pseudoClass, true);
+            }
+        });
+        shownStates = frame.states;
+        shownTransitions = frame.transitions;
+    }
+
+    private static Node getButton(State state) {
+        return state.getOnScreenVisual().getChildren().get(0);
+    }
+
+    private static final class Frame {
+        private final Map<State, Highlight> states;
+        private final Map<Transition, Highlight> transitions;
+
+        private Frame(Map<State, Highlight> states, Map<Transition, Highlight> transitions) {
+            this.states = states;
+            this.transitions = transitions;
+        }
+    }
+}
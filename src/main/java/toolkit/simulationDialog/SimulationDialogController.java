@@ -8,10 +8,8 @@ import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
-import javafx.scene.Node;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
@@ -40,17 +38,22 @@ import javafx.stage.Modality;
 import javafx.stage.Window;
 import javafx.util.Callback;
 import javafx.util.Duration;
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.Configuration;
+import main.java.engine.EpsilonComponents;
+import main.java.model.CompiledFiniteStateMachine;
 import main.java.model.FiniteStateMachine;
 import main.java.model.State;
 import main.java.model.Transition;
 import main.java.shared.AlertCreator;
-import main.java.shared.Unicode;
+import main.java.toolkit.simulationDialog.HighlightBatcher.Highlight;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Mert Acar
@@ -73,9 +76,14 @@ public class SimulationDialogController {
     private static final int DEFAULT_STEPS_CAP = 300; // Default limit
     private static final int STEPS_CAP_FOR_INFINITE_PATHS = 100;
     private static int currentStepsCap;
+    // Orders paths by the state they came from and then the state they reached, keeping sibling paths together
+    private static final Comparator<Configuration> PATH_ORDER = Comparator
+            .comparingInt((Configuration path) -> (path.getParent() == null) ? -1 : path.getParent().getState())
+            .thenComparingInt(Configuration::getState)
+            .thenComparingInt(Configuration::getTransition);
 
     @FXML
-    private ListView<String> lvPaths;
+    private ListView<Configuration> lvPaths;
     @FXML
     private Label lblPathCount;
     @FXML
@@ -85,6 +93,8 @@ public class SimulationDialogController {
     @FXML
     private Slider speedSlider;
     @FXML
+    private Slider stepSlider;
+    @FXML
     private TextField tfInputWord;
     @FXML
     private ToggleButton btnSimulate;
@@ -107,20 +117,36 @@ public class SimulationDialogController {
     private Dialog dialog;
     private Button[] outerWorkspaceButtons;
 
-    private ArrayList<ArrayList<State>> paths;
-    private HashMap<Integer, ArrayList<ArrayList<State>>> endedPathsHistory;
-    private HashMap<Integer, ArrayList<Transition>> transitionsUsedHistory;
-    private List<State> highlightedStates;
-    private List<Transition> highlightedTransitions;
+    // Paths are represented by their last configuration, and paths which branch from a common prefix share it
+    private ArrayList<Configuration> paths;
+    private SimulationHistory history;
+    private Map<State, Highlight> highlightedStates;
+    private Map<Transition, Highlight> highlightedTransitions;
+    private HighlightBatcher highlightBatcher;
+
+    // The states and transitions which the ids of the simulated automaton stand for, as they were when it was compiled
+    private CompiledFiniteStateMachine compiledFiniteStateMachine;
+    private CompiledAutomaton automaton;
+    private EpsilonComponents epsilonComponents;
+    private boolean isEpsilonCyclePresent;
+    private String inputWord;
+    private int[] inputSymbols;
 
     private BooleanProperty isPlaying;
     private BooleanProperty isInputWordSet;
     private BooleanProperty isPathsEmpty;
+    // Set while the step to show is still being traced, during which the controls are disabled
+    private BooleanProperty isWaitingForFrame;
     private IntegerProperty stepNumber;
     private boolean isPathsInfinite;
     private boolean isSpeedChanged;
+    private boolean isUpdatingStepSlider;
 
     private Thread backgroundThread;
+    private Thread tracingThread;
+    // Step at which the trace first entered an ε-cycle, which is reported once that step is shown
+    private volatile int loopStep;
+    private volatile Configuration loopingPath;
     private Timeline timeline;
 
     /**
@@ -145,22 +171,25 @@ public class SimulationDialogController {
         setUpDisablePropertyForSimulationControls();
         tfInputWord.requestFocus();
         setUpSliderListener();
+        setUpStepSliderListeners();
         setUpContextMenu();
     }
 
     private void initialiseFields() {
         paths = new ArrayList<>();
-        endedPathsHistory = new HashMap<>();
-        transitionsUsedHistory = new HashMap<>();
-        highlightedStates = new ArrayList<>();
-        highlightedTransitions = new ArrayList<>();
+        history = new SimulationHistory();
+        highlightedStates = new HashMap<>();
+        highlightedTransitions = new HashMap<>();
+        highlightBatcher = new HighlightBatcher();
         isPlaying = new SimpleBooleanProperty(false);
         isInputWordSet = new SimpleBooleanProperty(false);
         isPathsEmpty = new SimpleBooleanProperty(false);
+        isWaitingForFrame = new SimpleBooleanProperty(false);
         stepNumber = new SimpleIntegerProperty(0);
         timeline = new Timeline();
         timeline.setCycleCount(100);
         currentStepsCap = DEFAULT_STEPS_CAP;
+        loopStep = CompiledAutomaton.NONE;
     }
 
     private void restrictTextFieldToAlphanumerical() {
@@ -188,6 +217,36 @@ public class SimulationDialogController {
         });
     }
 
+    private void setUpStepSliderListeners() {
+        updateStepSliderRange();
+        // Keep the scrubber in line with the step being shown, without treating the change as a seek
+        stepNumber.addListener((observable, oldValue, newValue) -> Platform.runLater(() -> {
+            isUpdatingStepSlider = true;
+            stepSlider.setValue(newValue.intValue());
+            isUpdatingStepSlider = false;
+        }));
+        // While the thumb is dragged, only the step it is released at is sought
+        stepSlider.valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!isUpdatingStepSlider && !stepSlider.isValueChanging()) {
+                seekToStep((int) Math.round(newValue.doubleValue()));
+            }
+        });
+        stepSlider.valueChangingProperty().addListener((observable, wasChanging, isChanging) -> {
+            if (!isChanging) {
+                seekToStep((int) Math.round(stepSlider.getValue()));
+            }
+        });
+    }
+
+    private void updateStepSliderRange() {
+        int stepsCap = currentStepsCap;
+        Platform.runLater(() -> {
+            isUpdatingStepSlider = true;
+            stepSlider.setMax(stepsCap);
+            isUpdatingStepSlider = false;
+        });
+    }
+
     private void setUpContextMenu() {
         ContextMenu contextMenu = new ContextMenu();
         MenuItem deleteItem = new MenuItem("Delete");
@@ -204,13 +263,14 @@ public class SimulationDialogController {
     }
 
     private void setUpDisablePropertyForSimulationControls() {
-        BooleanBinding isPlayingOrWaitingOnInputWord = isPlaying.or(isInputWordSet.not());
+        BooleanBinding isPlayingOrWaitingOnInputWord = isPlaying.or(isWaitingForFrame).or(isInputWordSet.not());
         BooleanBinding isAtBeginning = stepNumber.lessThanOrEqualTo(0);
 
         btnPlay.disableProperty().bind(isPlayingOrWaitingOnInputWord.or(isPathsEmpty));
         btnStepForward.disableProperty().bind(isPlayingOrWaitingOnInputWord.or(isPathsEmpty));
         btnRewind.disableProperty().bind(isPlayingOrWaitingOnInputWord.or(isAtBeginning));
         btnStepBackward.disableProperty().bind(isPlayingOrWaitingOnInputWord.or(isAtBeginning));
+        stepSlider.disableProperty().bind(isPlayingOrWaitingOnInputWord);
         // We only want to press pause when a simulation is playing
         btnPause.disableProperty().bind(isPlaying.not());
         // We should be able to change the speed whenever we want as long as an input word has been set
@@ -219,26 +279,17 @@ public class SimulationDialogController {
     }
 
     private void removeSelectedPathFromListView() {
-        ArrayList<State> removedPath = paths.remove(lvPaths.getSelectionModel().getSelectedIndex());
-        // Checking if the sub-path of the removed path still exists in our current search space (paths)
-        removedPath.remove(removedPath.size() - 1);
-        removedPath.remove(removedPath.size() - 1); // Remove twice in order to remove the word and state
-
-        boolean isSubpathLost = true;
-        for (int i = 0; i < paths.size(); i++) {
-            if (removedPath.equals(paths.get(i).subList(0, stepNumber.getValue() * 2))) {
-                isSubpathLost = false;
-                break;
-            }
-        }
-        // If the subpath has been lost, we need to record a note of that path to allow for backtracking
-        if (isSubpathLost) {
-            endedPathsHistory.get(stepNumber.getValue()).add(removedPath);
-        }
-        // Remove the transition used by this deleted path to ensure it doesn't get highlighted
-        if (!transitionsUsedHistory.get(stepNumber.getValue()).isEmpty()) {
-            transitionsUsedHistory.get(stepNumber.getValue()).remove(lvPaths.getSelectionModel().getSelectedIndex());
+        int selectedIndex = lvPaths.getSelectionModel().getSelectedIndex();
+        paths.remove(selectedIndex);
+        // The steps traced after this one may contain paths extended from the deleted path, so they are traced again
+        stopTracing();
+        if (!isPathsInfinite && loopStep > stepNumber.getValue()) {
+            loopStep = CompiledAutomaton.NONE;
+            loopingPath = null;
         }
+        // Remove the path and its transition from this step only, the previous steps still hold its sub-path for backtracking
+        history.removePath(stepNumber.getValue(), selectedIndex);
+        startTracing(stepNumber.getValue());
 
         Platform.runLater(() -> lvPaths.getItems().remove(lvPaths.getSelectionModel().getSelectedIndex()));
         // Reset the highlighting
@@ -263,20 +314,23 @@ public class SimulationDialogController {
         if (backgroundThread != null) {
             backgroundThread.interrupt();
         }
+        stopTracing();
         lockInputTextField(false);
         setDisableEditingOnWorkspace(false);
         removeHighlights();
         clearCollections();
         stepNumber.setValue(0);
         isPathsInfinite = false;
+        loopStep = CompiledAutomaton.NONE;
+        loopingPath = null;
         currentStepsCap = DEFAULT_STEPS_CAP;
+        updateStepSliderRange();
         updateStatsLabels();
     }
 
     private synchronized void clearCollections() {
         paths.clear();
-        endedPathsHistory.clear();
-        transitionsUsedHistory.clear();
+        history.clear();
         Platform.runLater(() -> lvPaths.getItems().clear());
         // Call the Garbage Collector to clear our collections
         System.gc();
@@ -368,10 +422,28 @@ public class SimulationDialogController {
             return;
         }
 
-        // If we are highlighting states, then we need to process the next step
+        // If we are highlighting states, then we need to show the next step
         if (highlightedTransitions.isEmpty()) {
-            stepNumber.setValue(stepNumber.getValue() + 1);
-            processSingleStep();
+            int nextStep = stepNumber.getValue() + 1;
+            if (Platform.isFxApplicationThread()) {
+                // The step is normally traced long before it is shown, otherwise it is shown once it has been
+                if (!isFrameReady(nextStep, this::handleSingleForwardStep) || nextStep >= history.getNumberOfFrames()) {
+                    return;
+                }
+            } else {
+                try {
+                    // The simulation is being played, so the step can be waited for in the background
+                    if (!history.awaitFrame(nextStep)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    // Pause was clicked, the speed was changed or the dialog was closed while waiting
+                    return;
+                }
+            }
+            stepNumber.setValue(nextStep);
+            paths = new ArrayList<>(Arrays.asList(history.getPaths(nextStep)));
+            checkIfLoopEntered();
             if (!paths.isEmpty()) {
                 resetHighlightedStates();
                 highlightCurrentTransitions(stepNumber.getValue());
@@ -404,22 +476,9 @@ public class SimulationDialogController {
             resetHighlightedEndedPaths();
         } else {
             // If we are highlighting transitions, then we need to backtrack and highlight the states
-            for (int i = 0; i < paths.size(); i++) {
-                ArrayList<State> pathToBacktrack = paths.get(i);
-                pathToBacktrack.remove(pathToBacktrack.size() - 1); // Remove the word label
-                pathToBacktrack.remove(pathToBacktrack.size() - 1); // Remove the corresponding state
-            }
-            // Remove possible duplicate paths
-            paths = new ArrayList<>(new LinkedHashSet<>(paths));
-
-            // Recover all paths that have ended at this step
-            if (!endedPathsHistory.get(stepNumber.getValue()).isEmpty()) {
-                paths.addAll(endedPathsHistory.get(stepNumber.getValue()));
-            }
-            // Sort the paths in order to keep it in sync with the sorted transitions used history
-            paths.sort(Comparator.comparing(o -> (o.get(o.size() - 4).getLabel() + o.get(o.size() - 2).getLabel())));
-
             stepNumber.setValue(stepNumber.getValue() - 1);
+            // The previous step is read back as it was recorded, including the paths which have ended since
+            paths = new ArrayList<>(Arrays.asList(history.getPaths(stepNumber.getValue())));
             resetHighlightedTransitions();
             highlightEndedPaths();
             highlightCurrentStates();
@@ -453,88 +512,202 @@ public class SimulationDialogController {
             });
             return;
         }
-        ArrayList<State> initialPath = new ArrayList<>();
-        initialPath.add(finiteStateMachine.getInitialState());
-        // If the input word is empty it means the user wishes to simulate the empty word
-        initialPath.add(new State((word.length() == 0) ? Unicode.EPSILON : word, null));
-        paths.add(initialPath);
+        compiledFiniteStateMachine = finiteStateMachine.getCompiledFiniteStateMachine();
+        automaton = compiledFiniteStateMachine.getAutomaton();
+        // The ε-cycles are found once per version of the automaton, so paths never need to be scanned for loops
+        epsilonComponents = automaton.getEpsilonComponents();
+        isEpsilonCyclePresent = epsilonComponents.hasCycles();
+        inputWord = word;
+        inputSymbols = new int[word.length()];
+        for (int i = 0; i < word.length(); i++) {
+            inputSymbols[i] = automaton.getSymbolId(word.charAt(i));
+        }
+        paths.add(new Configuration(automaton.getInitialState(), 0));
+        history.putFrame(stepNumber.getValue(), paths.toArray(new Configuration[0]));
+        startTracing(stepNumber.getValue());
         addFormattedPathsToListView();
         highlightEndedPaths();
         highlightCurrentStates();
-        endedPathsHistory.put(stepNumber.getValue(), new ArrayList<>());
-        transitionsUsedHistory.put(stepNumber.getValue(), new ArrayList<>());
         updateStatsLabels();
     }
 
     /**
-     * Processes a single step on the remaining input word.
+     * Shows the specified step directly. Every step is traced ahead of time, so the step is read back from its frame
+     * without showing the steps in between.
+     *
+     * @param targetStep number of the step to show
+     */
+    private void seekToStep(int targetStep) {
+        if (!isInputWordSet.getValue() || isPlaying.getValue() || history.getNumberOfFrames() == 0 || targetStep == stepNumber.getValue()) {
+            return;
+        }
+        int step = Math.max(targetStep, 0);
+        if (!isFrameReady(step, () -> seekToStep(targetStep))) {
+            return;
+        }
+        // The trace ends early if every path ends or a limit is reached, in which case its last step is shown
+        step = Math.min(step, history.getNumberOfFrames() - 1);
+        paths = new ArrayList<>(Arrays.asList(history.getPaths(step)));
+        if (paths.isEmpty() && step > 0) {
+            step--;
+            paths = new ArrayList<>(Arrays.asList(history.getPaths(step)));
+        }
+
+        stepNumber.setValue(step);
+        checkIfLoopEntered();
+        removeHighlights();
+        highlightEndedPaths();
+        highlightCurrentStates();
+        addFormattedPathsToListView();
+        updateStatsLabels();
+        if (stepNumber.getValue() != targetStep) {
+            // The scrubber is moved back to the step which could actually be reached
+            Platform.runLater(() -> {
+                isUpdatingStepSlider = true;
+                stepSlider.setValue(stepNumber.getValue());
+                isUpdatingStepSlider = false;
+            });
+        }
+    }
+
+    /**
+     * Checks whether the specified step can be shown straight away, without waiting on the JavaFX application thread.
+     * If it is still being traced, the simulation controls are disabled and a progress indicator is shown until it
+     * has been recorded, after which the specified action is run again on the JavaFX application thread.
+     *
+     * @param step  number of the step to show
+     * @param retry action to run again once the step can be shown
+     * @return <tt>true</tt> if the step can be shown straight away
      */
-    private void processSingleStep() {
+    private boolean isFrameReady(int step, Runnable retry) {
+        boolean isReady = history.requestFrame(step, () -> Platform.runLater(() -> {
+            isWaitingForFrame.set(false);
+            timerIndicator.setProgress(0.0);
+            retry.run();
+        }));
+        if (!isReady) {
+            isWaitingForFrame.set(true);
+            timerIndicator.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        }
+        return isReady;
+    }
+
+    /**
+     * Traces the steps after the specified recorded step on a worker thread, so that playing, stepping and seeking
+     * only have to show frames which have already been computed.
+     *
+     * @param fromStep number of the recorded step to continue from
+     */
+    private void startTracing(int fromStep) {
+        stopTracing();
+        Configuration[] startPaths = history.getPaths(fromStep);
+        int stepsCap = currentStepsCap;
+        int generation = history.startTracing();
+        tracingThread = new Thread(() -> {
+            try {
+                traceSteps(generation, fromStep, startPaths, stepsCap);
+            } finally {
+                history.finishTracing(generation);
+            }
+        });
+        tracingThread.setDaemon(true);
+        tracingThread.setName("Tracing Simulation");
+        tracingThread.start();
+    }
+
+    private void stopTracing() {
+        // The worker is not waited for, its generation is retired so that anything it still records is ignored
+        history.stopTracing();
+        if (tracingThread != null) {
+            tracingThread.interrupt();
+            tracingThread = null;
+        }
+    }
+
+    private void traceSteps(int generation, int step, Configuration[] startPaths, int stepsCap) {
+        List<Configuration> tracedPaths = Arrays.asList(startPaths);
+        Configuration[] enteredLoop = new Configuration[1];
+        while (step < stepsCap && !tracedPaths.isEmpty() && tracedPaths.size() < MAX_NUMBER_OF_PATHS && !Thread.currentThread().isInterrupted()) {
+            step++;
+            enteredLoop[0] = null;
+            tracedPaths = computeNextStep(tracedPaths, step, enteredLoop);
+            if (enteredLoop[0] != null) {
+                // Checked while the history is locked, so a stopped worker cannot report a loop after it was reset
+                synchronized (history) {
+                    if (!history.isCurrentGeneration(generation)) {
+                        return;
+                    }
+                    if (loopStep == CompiledAutomaton.NONE) {
+                        loopingPath = enteredLoop[0];
+                        loopStep = step;
+                    }
+                }
+            }
+            if (loopStep == step) {
+                // There are infinitely many paths once one has entered an ε-cycle, so fewer steps are traced
+                stepsCap = Math.min(stepsCap, step + STEPS_CAP_FOR_INFINITE_PATHS);
+            }
+            // The last frame is empty if every path has ended, which is how the dialog finds out
+            if (!history.putTracedFrame(generation, step, tracedPaths.toArray(new Configuration[0]))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Computes the paths reached by a single step on the remaining input word.
+     *
+     * @param paths       to extend
+     * @param step        number of the step being computed
+     * @param enteredLoop holds the first path found entering an ε-cycle, if any
+     * @return the extended paths in the order they are listed
+     */
+    private List<Configuration> computeNextStep(List<Configuration> paths, int step, Configuration[] enteredLoop) {
         int numOfPaths = paths.size();
-        transitionsUsedHistory.put(stepNumber.getValue(), new ArrayList<>());
-        endedPathsHistory.put(stepNumber.getValue(), new ArrayList<>());
+        ArrayList<Configuration> extendedPaths = new ArrayList<>(numOfPaths);
 
         for (int j = 0; j < numOfPaths; j++) {
-            boolean isPathDeadEnd = true;
-            ArrayList<State> toCheck = paths.remove(0);
-            // We check the state at index size - 2 because the format of each path is [state, label, state, label, ...]
-            List<Transition> availableTransitions = finiteStateMachine.getOutgoingTransitions(toCheck.get(toCheck.size() - 2));
-            for (Transition t : availableTransitions) {
-                // Check to see if the transition symbol matches the input symbol being observed, or if the transition symbol is the empty word
-                if (t.getSymbol().equals(toCheck.get(toCheck.size() - 1).getLabel().charAt(0) + "") || t.getSymbol().equals(Unicode.EPSILON)) {
-                    ArrayList<State> newPath = new ArrayList<>(toCheck);
-                    newPath.add(t.getToState());
-                    isPathDeadEnd = false;
-                    transitionsUsedHistory.get(stepNumber.getValue()).add(t);
-
-                    if (t.getSymbol().equals(Unicode.EPSILON)) {
-                        // If an empty word transition was used, the input symbol has not been consumed
-                        newPath.add(new State(toCheck.get(toCheck.size() - 1).getLabel(), null));
-
-                        // Check if the path has looped
-                        if (!isPathsInfinite) {
-                            // Checking if this <state, word> pair has already been visited, if we have then there exists a loop
-                            State wordToFind = newPath.get(newPath.size() - 1);
-                            State stateToFind = newPath.get(newPath.size() - 2);
-
-                            for (int i = toCheck.size() - 1; i > 0; i -= 2) {
-                                if (!toCheck.get(i).equals(wordToFind)) {
-                                    // If the word is not equal to the word we are looking for, we know that the rest of the pairs on the left won't be equal either
-                                    break;
-                                } else if (toCheck.get(i - 1).equals(stateToFind)) {
-                                    isPathsInfinite = true;
-                                    displayLoopDetectedDialog(newPath);
-                                    currentStepsCap = stepNumber.getValue() + STEPS_CAP_FOR_INFINITE_PATHS;
-                                    onPauseClick();
-                                    break;
-                                }
-                            }
-                        }
-                    } else {
-                        // Check if the remaining input word length is equal to 1, if it is we use the empty word
-                        if (toCheck.get(toCheck.size() - 1).getLabel().length() == 1) {
-                            newPath.add(new State(Unicode.EPSILON, null));
-                        } else {
-                            newPath.add(new State(toCheck.get(toCheck.size() - 1).getLabel().substring(1), null));
-                        }
+            Configuration toCheck = paths.get(j);
+            int currentStateId = toCheck.getState();
+            int position = toCheck.getPosition();
+            int inputSymbolId = (position < inputSymbols.length) ? inputSymbols[position] : CompiledAutomaton.NONE;
+            // Only the transitions using the input symbol being observed (first pass) or the empty word (second pass) are applicable
+            for (int pass = 0; pass < 2; pass++) {
+                int symbolId = (pass == 0) ? inputSymbolId : CompiledAutomaton.EPSILON;
+                if (symbolId == CompiledAutomaton.NONE) {
+                    continue;
+                }
+                // If an empty word transition was used, the input symbol has not been consumed
+                int nextPosition = (symbolId == CompiledAutomaton.EPSILON) ? position : position + 1;
+                for (int k = automaton.getTransitionsStart(currentStateId, symbolId); k < automaton.getTransitionsEnd(currentStateId, symbolId); k++) {
+                    Configuration newPath = new Configuration(automaton.getTarget(k), nextPosition, automaton.getTransitionId(k), toCheck);
+
+                    // Check if the path has entered an ε-cycle, which lets it loop without consuming any input
+                    if (symbolId == CompiledAutomaton.EPSILON && isEpsilonCyclePresent && enteredLoop[0] == null && epsilonComponents.isOnCycle(currentStateId, newPath.getState())) {
+                        enteredLoop[0] = newPath;
                     }
-                    paths.add(newPath);
+                    extendedPaths.add(newPath);
                 }
             }
-            if (isPathDeadEnd) {
-                endedPathsHistory.get(stepNumber.getValue()).add(toCheck);
-            }
         }
-        // Sort both containers to keep them in sync (important for when users delete paths)
-        paths.sort(Comparator.comparing(o -> (o.get(o.size() - 4).getLabel() + o.get(o.size() - 2).getLabel())));
-        transitionsUsedHistory.get(stepNumber.getValue()).sort(Transition::compareTo);
+        // Sort the paths so that sibling paths are listed together, the frame keeps their transitions in the same order
+        extendedPaths.sort(PATH_ORDER);
+        return extendedPaths;
     }
 
-    private synchronized void addFormattedPathsToListView() {
-        List<String> toAddToListView = new ArrayList<>(paths.size());
-        for (int i = 0; i < paths.size(); i++) {
-            toAddToListView.add(pathToString(paths.get(i)));
+    private void checkIfLoopEntered() {
+        if (!isPathsInfinite && loopStep != CompiledAutomaton.NONE && stepNumber.getValue() >= loopStep) {
+            isPathsInfinite = true;
+            displayLoopDetectedDialog(loopingPath);
+            currentStepsCap = loopStep + STEPS_CAP_FOR_INFINITE_PATHS;
+            updateStepSliderRange();
+            onPauseClick();
         }
+    }
+
+    private synchronized void addFormattedPathsToListView() {
+        // Path strings are only formatted by the cells which are actually displayed
+        List<Configuration> toAddToListView = new ArrayList<>(paths);
         Platform.runLater(() -> {
             if (isInputWordSet.getValue()) {
                 lvPaths.getItems().setAll(toAddToListView);
@@ -552,58 +725,51 @@ public class SimulationDialogController {
         }
     }
 
-    private String pathToString(ArrayList<State> path) {
-        StringBuilder formattedPath = new StringBuilder();
-        for (int k = 0; k < path.size(); k += 2) {
-            formattedPath.append("(").append(path.get(k).getLabel()).append(",").append(path.get(k + 1).getLabel()).append("), ");
-        }
-        // Remove the extra comma and whitespace at the end
-        return formattedPath.substring(0, formattedPath.length() - 2);
-    }
-
-    private boolean checkIfPathHasEnded(ArrayList<State> path) {
-        List<Transition> availableTransitions = finiteStateMachine.getOutgoingTransitions(path.get(path.size() - 2));
-        for (Transition t : availableTransitions) {
-            // A path has not ended if the remaining input word is not the empty word and there is an applicable transition to take
-            if (!path.get(path.size() - 1).getLabel().equals(Unicode.EPSILON) && (t.getSymbol().equals(Unicode.EPSILON) || t.getSymbol().equals(path.get(path.size() - 1).getLabel().charAt(0) + ""))) {
-                return false;
-            }
+    private boolean checkIfPathHasEnded(Configuration path) {
+        int position = path.getPosition();
+        // A path has not ended if the remaining input word is not the empty word and there is an applicable transition to take
+        if (position == inputSymbols.length) {
+            return true;
         }
-        return true;
+        int stateId = path.getState();
+        int inputSymbolId = inputSymbols[position];
+        boolean hasEmptyWordTransition = automaton.getTransitionsStart(stateId, CompiledAutomaton.EPSILON) != automaton.getTransitionsEnd(stateId, CompiledAutomaton.EPSILON);
+        boolean hasInputSymbolTransition = inputSymbolId != CompiledAutomaton.NONE && automaton.getTransitionsStart(stateId, inputSymbolId) != automaton.getTransitionsEnd(stateId, inputSymbolId);
+        return !hasEmptyWordTransition && !hasInputSymbolTransition;
     }
 
     private synchronized void highlightEndedPaths() {
         // Stores the indices of ended paths that should be highlighted and whether or not they were accepted (true = accepted)
         HashMap<Integer, Boolean> indicesToHighlight = new HashMap<>();
         for (int i = 0; i < paths.size(); i++) {
-            ArrayList<State> pathToCheck = paths.get(i);
+            Configuration pathToCheck = paths.get(i);
             if (checkIfPathHasEnded(pathToCheck)) {
-                if (pathToCheck.get(pathToCheck.size() - 1).getLabel().equals(Unicode.EPSILON) && pathToCheck.get(pathToCheck.size() - 2).isAccepting()) {
+                if (pathToCheck.getPosition() == inputSymbols.length && automaton.isAccepting(pathToCheck.getState())) {
                     indicesToHighlight.put(i, true);
                 } else {
                     indicesToHighlight.put(i, false);
                 }
             }
         }
-        Platform.runLater(() -> lvPaths.setCellFactory(new Callback<ListView<String>, ListCell<String>>() {
+        Platform.runLater(() -> lvPaths.setCellFactory(new Callback<ListView<Configuration>, ListCell<Configuration>>() {
             @Override
-            public ListCell<String> call(final ListView<String> param) {
-                return new ListCell<String>() {
+            public ListCell<Configuration> call(final ListView<Configuration> param) {
+                return new ListCell<Configuration>() {
                     @Override
-                    protected void updateItem(final String item, final boolean empty) {
+                    protected void updateItem(final Configuration item, final boolean empty) {
                         super.updateItem(item, empty);
 
                         if (empty || item == null) {
                             setText(null);
                             setStyle(null);
                         } else {
-                            setText(item);
+                            setText(formatPath(item));
                             if (indicesToHighlight.containsKey(getIndex())) {
                                 if (indicesToHighlight.get(getIndex())) {
                                     // Highlight accepted paths green
                                     setBackground(new Background(new BackgroundFill(acceptedPathHighlight, new CornerRadii(5), new Insets(2))));
                                 } else {
-                                    if (item.contains(Unicode.EPSILON)) {
+                                    if (item.getPosition() == inputSymbols.length) {
                                         // Highlight rejected paths red
                                         setBackground(new Background(new BackgroundFill(rejectedPathHighlight, new CornerRadii(5), new Insets(2))));
                                     } else {
@@ -620,18 +786,18 @@ public class SimulationDialogController {
     }
 
     private synchronized void resetHighlightedEndedPaths() {
-        Platform.runLater(() -> lvPaths.setCellFactory(new Callback<ListView<String>, ListCell<String>>() {
+        Platform.runLater(() -> lvPaths.setCellFactory(new Callback<ListView<Configuration>, ListCell<Configuration>>() {
             @Override
-            public ListCell<String> call(final ListView<String> param) {
-                return new ListCell<String>() {
+            public ListCell<Configuration> call(final ListView<Configuration> param) {
+                return new ListCell<Configuration>() {
                     @Override
-                    protected void updateItem(final String item, final boolean empty) {
+                    protected void updateItem(final Configuration item, final boolean empty) {
                         super.updateItem(item, empty);
                         if (empty || item == null) {
                             setText(null);
                             setStyle(null);
                         } else {
-                            setText(item);
+                            setText(formatPath(item));
                         }
                     }
                 };
@@ -641,48 +807,48 @@ public class SimulationDialogController {
 
     private synchronized void highlightCurrentStates() {
         for (int i = 0; i < paths.size(); i++) {
-            ArrayList<State> pathToHighlight = paths.get(i);
-            State current = pathToHighlight.get(pathToHighlight.size() - 2);
-            Platform.runLater(() -> current.getOnScreenVisual().getChildren().get(0).setStyle("-fx-border-color: #CC9900;"));
-            highlightedStates.add(current);
+            // A state reached by several paths shows the most significant of their outcomes
+            highlightedStates.merge(compiledFiniteStateMachine.getState(paths.get(i).getState()), getHighlight(paths.get(i)), Highlight::merge);
         }
+        renderHighlights();
     }
 
     private synchronized void resetHighlightedStates() {
-        for (int i = 0; i < highlightedStates.size(); i++) {
-            State stateToReset = highlightedStates.get(i);
-            Platform.runLater(() -> stateToReset.getOnScreenVisual().getChildren().get(0).setStyle("-fx-border-color: #000000;"));
-        }
         highlightedStates.clear();
+        renderHighlights();
     }
 
     private synchronized void highlightCurrentTransitions(int index) {
-        if (transitionsUsedHistory.containsKey(index)) {
-            ArrayList<Transition> transitionsToHighlight = transitionsUsedHistory.get(index);
-            for (int i = 0; i < transitionsToHighlight.size(); i++) {
-                ObservableList<Node> visualComponents = transitionsToHighlight.get(i).getOnScreenVisual().getChildren();
-                Platform.runLater(() -> {
-                    // Highlight the 0) arrow, 1) label, 2) arrowhead
-                    visualComponents.get(0).setStyle(visualComponents.get(0).getStyle().replaceAll("-fx-stroke: #000000", "-fx-stroke: #CC9900"));
-                    visualComponents.get(1).setStyle(visualComponents.get(1).getStyle().replaceAll("-fx-text-fill: #000000", "-fx-text-fill: #CC9900"));
-                    visualComponents.get(2).setStyle(visualComponents.get(2).getStyle().replaceAll("-fx-fill: #000000", "-fx-fill: #CC9900"));
-                });
-                highlightedTransitions.add(transitionsToHighlight.get(i));
+        if (index < history.getNumberOfFrames()) {
+            // The transitions are in the same order as the paths they were used by
+            Configuration[] pathsOfStep = history.getPaths(index);
+            int[] transitionIds = history.getTransitions(index);
+            for (int i = 0; i < transitionIds.length; i++) {
+                if (transitionIds[i] != CompiledAutomaton.NONE) {
+                    highlightedTransitions.merge(compiledFiniteStateMachine.getTransition(transitionIds[i]), getHighlight(pathsOfStep[i]), Highlight::merge);
+                }
             }
         }
+        renderHighlights();
     }
 
     private synchronized void resetHighlightedTransitions() {
-        for (int i = 0; i < highlightedTransitions.size(); i++) {
-            ObservableList<Node> visualComponents = highlightedTransitions.get(i).getOnScreenVisual().getChildren();
-            Platform.runLater(() -> {
-                // Highlight the 0) arrow, 1) label, 2) arrowhead
-                visualComponents.get(0).setStyle(visualComponents.get(0).getStyle().replaceAll("-fx-stroke: #CC9900", "-fx-stroke: #000000"));
-                visualComponents.get(1).setStyle(visualComponents.get(1).getStyle().replaceAll("-fx-text-fill: #CC9900", "-fx-text-fill: #000000"));
-                visualComponents.get(2).setStyle(visualComponents.get(2).getStyle().replaceAll("-fx-fill: #CC9900", "-fx-fill: #000000"));
-            });
-        }
         highlightedTransitions.clear();
+        renderHighlights();
+    }
+
+    private void renderHighlights() {
+        // The highlighting of a whole step is applied at once, however many times it changes before being shown
+        highlightBatcher.submit(highlightedStates, highlightedTransitions);
+    }
+
+    private Highlight getHighlight(Configuration path) {
+        if (!checkIfPathHasEnded(path)) {
+            return Highlight.ACTIVE;
+        } else if (path.getPosition() == inputSymbols.length) {
+            return automaton.isAccepting(path.getState()) ? Highlight.ACCEPTED : Highlight.REJECTED;
+        }
+        return Highlight.STUCK;
     }
 
     private void removeHighlights() {
@@ -720,16 +886,20 @@ public class SimulationDialogController {
         return false;
     }
 
-    private void displayLoopDetectedDialog(ArrayList<State> loopingPath) {
+    private String formatPath(Configuration path) {
+        return path.formatPath(automaton, inputWord);
+    }
+
+    private void displayLoopDetectedDialog(Configuration loopingPath) {
         Platform.runLater(() -> {
             Alert loopDetectedAlert = AlertCreator.createInitialisedAlert("Loop Entered!", "", AlertType.INFORMATION, dialog.getDialogPane().getScene().getWindow(), Modality.WINDOW_MODAL);
 
-            TextArea textArea = new TextArea(pathToString(loopingPath));
+            TextArea textArea = new TextArea(formatPath(loopingPath));
             textArea.setEditable(false);
             textArea.setPrefHeight(20);
             textArea.setMaxWidth(360);
 
-            Label lblMessage = new Label("The following path has been identified to loop, this means that there are infinitely many paths. Hence, the number of steps onwards has been capped to " + STEPS_CAP_FOR_INFINITE_PATHS + ".");
+            Label lblMessage = new Label("The following path has entered an ε-cycle, this means that there are infinitely many paths. Hence, the number of steps onwards has been capped to " + STEPS_CAP_FOR_INFINITE_PATHS + ".");
             lblMessage.setWrapText(true);
             lblMessage.setMaxWidth(textArea.getMaxWidth());
             lblMessage.setTextAlignment(TextAlignment.CENTER);
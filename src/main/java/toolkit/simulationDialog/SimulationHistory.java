@@ -0,0 +1,254 @@
+package main.java.toolkit.simulationDialog;
+
+import main.java.engine.Configuration;
+
+import java.util.Arrays;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Records the paths of a simulation step by step, so that earlier steps can be returned to without recomputing them.
+ * Every configuration reached is stored once and given an id, and each step is kept as a frame holding the ids of
+ * its paths together with the ids of the transitions used to reach them. Returning to a step therefore only reads
+ * its frame, and discarding the steps after it releases the configurations they created.
+ * The steps are traced ahead of time by a worker thread which appends frames while the dialog reads the earlier
+ * ones, so every method is synchronised. A frame which has not been traced yet can be waited for by a background
+ * thread, or requested with a callback by the JavaFX application thread, which must never wait.
+ * Each worker is given a generation when it starts, and stopping it retires the generation instead of waiting for
+ * it, so the frames a stopped worker still tries to record are ignored.
+ * </p>
+ */
+final class SimulationHistory {
+    private Configuration[] configurations = new Configuration[64];
+    private int numberOfConfigurations;
+
+    // Frame i holds the paths after step i, and the configurations created by step i start at firstConfigurations[i]
+    private int[][] pathFrames = new int[16][];
+    private int[][] transitionFrames = new int[16][];
+    private int[] firstConfigurations = new int[16];
+    private int numberOfFrames;
+    private boolean isTracing;
+    private int generation;
+    // Run once the requested step has been recorded or tracing has finished, at most one request is kept
+    private int requestedStep;
+    private Runnable onRequestedFrame;
+
+    /**
+     * Get the number of steps recorded, including the initial step 0.
+     *
+     * @return the number of frames
+     */
+    synchronized int getNumberOfFrames() {
+        return numberOfFrames;
+    }
+
+    /**
+     * Records the paths reached by the next step, discarding any steps which were recorded after the current one.
+     *
+     * @param step  number of the step the paths were reached by, at most the number of frames
+     * @param paths the paths in the order they are listed
+     */
+    synchronized void putFrame(int step, Configuration[] paths) {
+        discardFramesFrom(step);
+        if (step == pathFrames.length) {
+            pathFrames = Arrays.copyOf(pathFrames, step * 2);
+            transitionFrames = Arrays.copyOf(transitionFrames, step * 2);
+            firstConfigurations = Arrays.copyOf(firstConfigurations, step * 2);
+        }
+        firstConfigurations[step] = numberOfConfigurations;
+        int[] pathIds = new int[paths.length];
+        int[] transitionIds = new int[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            pathIds[i] = addConfiguration(paths[i]);
+            transitionIds[i] = paths[i].getTransition();
+        }
+        pathFrames[step] = pathIds;
+        transitionFrames[step] = transitionIds;
+        numberOfFrames = step + 1;
+        notifyAll();
+        if (step >= requestedStep) {
+            runRequest();
+        }
+    }
+
+    /**
+     * Records the paths reached by a step traced by a worker, unless the worker has been stopped since.
+     *
+     * @param generation of the worker, as returned by {@link #startTracing()}
+     * @param step       number of the step the paths were reached by, at most the number of frames
+     * @param paths      the paths in the order they are listed
+     * @return <tt>true</tt> if the frame was recorded, <tt>false</tt> if the worker should stop
+     */
+    synchronized boolean putTracedFrame(int generation, int step, Configuration[] paths) {
+        if (!isCurrentGeneration(generation)) {
+            return false;
+        }
+        putFrame(step, paths);
+        return true;
+    }
+
+    /**
+     * Get the paths after the specified step.
+     *
+     * @param step number of a recorded step
+     * @return the paths in the order they are listed
+     */
+    synchronized Configuration[] getPaths(int step) {
+        int[] pathIds = pathFrames[step];
+        Configuration[] paths = new Configuration[pathIds.length];
+        for (int i = 0; i < pathIds.length; i++) {
+            paths[i] = configurations[pathIds[i]];
+        }
+        return paths;
+    }
+
+    /**
+     * Get the ids of the transitions used by the specified step, in the same order as its paths.
+     *
+     * @param step number of a recorded step
+     * @return the transition ids, which are {@link main.java.engine.CompiledAutomaton#NONE} for step 0
+     */
+    synchronized int[] getTransitions(int step) {
+        return transitionFrames[step];
+    }
+
+    /**
+     * Removes a path from the specified step, e.g. when the user deletes it from the list. The steps recorded after it
+     * are discarded, as they may contain paths extended from the removed one.
+     *
+     * @param step  number of a recorded step
+     * @param index of the path within the step
+     */
+    synchronized void removePath(int step, int index) {
+        discardFramesFrom(step + 1);
+        pathFrames[step] = removeIndex(pathFrames[step], index);
+        transitionFrames[step] = removeIndex(transitionFrames[step], index);
+    }
+
+    /**
+     * Discards every recorded step, along with anything a worker still traces for them.
+     */
+    synchronized void clear() {
+        generation++;
+        isTracing = false;
+        discardFramesFrom(0);
+        onRequestedFrame = null;
+        notifyAll();
+    }
+
+    /**
+     * Starts a new generation of tracing, retiring the previous one.
+     *
+     * @return the generation the new worker records its frames with
+     */
+    synchronized int startTracing() {
+        generation++;
+        isTracing = true;
+        notifyAll();
+        return generation;
+    }
+
+    /**
+     * Retires the current generation of tracing without waiting for its worker, which those waiting for a frame are
+     * told about.
+     */
+    synchronized void stopTracing() {
+        generation++;
+        setTracingFinished();
+    }
+
+    /**
+     * Marks the specified generation of tracing as finished, unless it has already been retired.
+     *
+     * @param generation of the worker which has finished
+     */
+    synchronized void finishTracing(int generation) {
+        if (isCurrentGeneration(generation)) {
+            setTracingFinished();
+        }
+    }
+
+    /**
+     * Checks whether the specified generation of tracing is still the current one, i.e. its worker has not been
+     * stopped.
+     *
+     * @param generation of a worker
+     * @return <tt>true</tt> if the worker has not been stopped
+     */
+    synchronized boolean isCurrentGeneration(int generation) {
+        return this.generation == generation;
+    }
+
+    /**
+     * Waits until the specified step has been traced, or until tracing has finished without reaching it.
+     *
+     * @param step number of the step to wait for
+     * @return <tt>true</tt> if the step has been recorded
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    synchronized boolean awaitFrame(int step) throws InterruptedException {
+        while (step >= numberOfFrames && isTracing) {
+            wait();
+        }
+        return step < numberOfFrames;
+    }
+
+    /**
+     * Checks whether the specified step can be read straight away, i.e. it has been traced or tracing has finished
+     * without reaching it. If not, the callback is run by the tracing thread once it can be, replacing any callback
+     * requested before. The callback must not block, it is run while the history is locked.
+     *
+     * @param step     number of the step to request
+     * @param callback to run once the step can be read, if it cannot be yet
+     * @return <tt>true</tt> if the step can be read straight away, in which case the callback is not run
+     */
+    synchronized boolean requestFrame(int step, Runnable callback) {
+        if (step < numberOfFrames || !isTracing) {
+            return true;
+        }
+        requestedStep = step;
+        onRequestedFrame = callback;
+        return false;
+    }
+
+    private void setTracingFinished() {
+        isTracing = false;
+        notifyAll();
+        runRequest();
+    }
+
+    private void runRequest() {
+        Runnable callback = onRequestedFrame;
+        onRequestedFrame = null;
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    private void discardFramesFrom(int step) {
+        if (step >= numberOfFrames) {
+            return;
+        }
+        int first = firstConfigurations[step];
+        Arrays.fill(configurations, first, numberOfConfigurations, null);
+        Arrays.fill(pathFrames, step, numberOfFrames, null);
+        Arrays.fill(transitionFrames, step, numberOfFrames, null);
+        numberOfConfigurations = first;
+        numberOfFrames = step;
+    }
+
+    private int addConfiguration(Configuration configuration) {
+        if (numberOfConfigurations == configurations.length) {
+            configurations = Arrays.copyOf(configurations, numberOfConfigurations * 2);
+        }
+        configurations[numberOfConfigurations] = configuration;
+        return numberOfConfigurations++;
+    }
+
+    private static int[] removeIndex(int[] array, int index) {
+        int[] result = new int[array.length - 1];
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(array, index + 1, result, index, result.length - index);
+        return result;
+    }
+}
@@ -3,25 +3,38 @@ package main.java.toolkit.testInputDialog;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
+import javafx.beans.value.ObservableBooleanValue;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.Tooltip;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.stage.Modality;
 import javafx.util.Duration;
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.Configuration;
+import main.java.engine.ConfigurationSetMatcher;
+import main.java.engine.MatchResult;
+import main.java.engine.SearchBudget;
 import main.java.model.FiniteStateMachine;
-import main.java.model.State;
-import main.java.model.Transition;
 import main.java.shared.AlertCreator;
 import main.java.shared.Unicode;
 
 import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * @author Mert Acar
@@ -30,42 +43,119 @@ import java.util.List;
  * </p>
  */
 public class TestInputDialogController {
+    // Time in milliseconds after which testing a word is stopped
+    private static long timeBudget = 10000;
+    // Number of bytes which testing a word may allocate for configurations before it is stopped
+    private static long memoryBudget = 256L << 20;
+
+    private static final int PROGRESS_UPDATE_INTERVAL = 100; // in milliseconds
+    private static final int PATHS_PER_PAGE = 200;
+    private static final int MAX_NUMBER_OF_LISTED_PATHS = 20000;
+    // Path counts with more digits than this are shown in scientific notation
+    private static final int MAX_NUMBER_OF_SHOWN_DIGITS = 15;
+
     @FXML
     private Label lblResult;
     @FXML
     private Label lblOfPaths;
     @FXML
-    private ListView<String> lvPaths;
+    private ListView<Configuration> lvPaths;
+    @FXML
+    private Button btnLoadMore;
     @FXML
     private Tooltip pathsTooltip;
+    @FXML
+    private HBox progressPane;
+    @FXML
+    private Label lblProgress;
 
     private FiniteStateMachine finiteStateMachine;
     private Dialog<String> resultsDialog;
     private Pane workspacePane;
 
-    private ArrayList<ArrayList<State>> acceptedPaths;
-    private ArrayList<ArrayList<State>> rejectedPaths;
     private boolean isAccepted;
     private boolean isPathsInfinite;
 
+    private CompiledAutomaton automaton;
+    private String testedWord;
+    // Paths are enumerated a page at a time as the user asks for more, there are none to enumerate when only
+    // a shortest accepting path is searched for
+    private MatchResult.PathIterator paths;
+    private BigInteger numberOfPaths;
+    private String pathsTitle;
+
+    private SearchBudget budget;
+    private Timeline progressUpdates;
+
+    /**
+     * Get the time after which testing a word is stopped.
+     *
+     * @return the time budget in milliseconds
+     */
+    public static long getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * Sets the time after which testing a word is stopped, which applies to the words tested from then on.
+     *
+     * @param milliseconds the new time budget, which must be positive
+     */
+    public static void setTimeBudget(long milliseconds) {
+        if (milliseconds <= 0) {
+            throw new IllegalArgumentException("The time budget must be positive");
+        }
+        timeBudget = milliseconds;
+    }
+
+    /**
+     * Get the number of bytes which testing a word may allocate for configurations before it is stopped.
+     *
+     * @return the memory budget in bytes
+     */
+    public static long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the number of bytes which testing a word may allocate for configurations before it is stopped, which
+     * applies to the words tested from then on.
+     *
+     * @param bytes the new memory budget, which must be positive
+     */
+    public static void setMemoryBudget(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("The memory budget must be positive");
+        }
+        memoryBudget = bytes;
+    }
+
     /**
      * Initialises the controller by storing references to the specified finite automaton, workspace pane, toolkit
      * toolbar, outer toolkit buttons, and the simulation resultsDialog.
      * Sets up the required window and slider listeners as well as the context menu for entries in the list.
      *
-     * @param fsm           the finite automaton used by the toolkit
-     * @param requestDialog the resultsDialog to request the testing of an input word
-     * @param resultDialog  the resultsDialog which will show the results of the tested input word
-     * @param pane          representing the workspace
+     * @param fsm                the finite automaton used by the toolkit
+     * @param requestDialog      the resultsDialog to request the testing of an input word
+     * @param resultDialog       the resultsDialog which will show the results of the tested input word
+     * @param pane               representing the workspace
+     * @param isShortestPathOnly whether only a shortest accepting path should be searched for, once a word is entered
      */
-    public void initTestInputWordDialogController(FiniteStateMachine fsm, Dialog<String> requestDialog, Dialog<String> resultDialog, Pane pane) {
+    public void initTestInputWordDialogController(FiniteStateMachine fsm, Dialog<String> requestDialog, Dialog<String> resultDialog, Pane pane, ObservableBooleanValue isShortestPathOnly) {
         finiteStateMachine = fsm;
         resultsDialog = resultDialog;
         workspacePane = pane;
 
         resultsDialog.initModality(Modality.NONE);
+        // Closing the dialog stops any test still running in the background
+        resultsDialog.setOnHidden(event -> {
+            if (budget != null) {
+                budget.cancel();
+            }
+        });
         configureTooltipTimers();
-        requestDialog.showAndWait().ifPresent(result -> testInputWord(result + ""));
+        setUpCellFactory();
+        requestDialog.showAndWait().ifPresent(result -> testInputWord(result + "", isShortestPathOnly.get()));
         lblResult.prefWidthProperty().bind(resultsDialog.getDialogPane().widthProperty().subtract(20));
     }
 
@@ -87,25 +177,30 @@ public class TestInputDialogController {
         }
     }
 
-    private ArrayList<ArrayList<State>> initialiseSearchSpace(String word) {
-        acceptedPaths = new ArrayList<>();
-        rejectedPaths = new ArrayList<>();
-        ArrayList<ArrayList<State>> workingPaths = new ArrayList<>();
-
-        // Initialise the first path in the search space
-        ArrayList<State> startPath = new ArrayList<>();
-        startPath.add(finiteStateMachine.getInitialState());
-        startPath.add(new State((word.length() == 0) ? Unicode.EPSILON : word, null));
-        workingPaths.add(startPath);
-        return workingPaths;
+    private void setUpCellFactory() {
+        lvPaths.setCellFactory(listView -> new ListCell<Configuration>() {
+            @Override
+            protected void updateItem(Configuration item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    // Paths are only formatted once their cell is displayed
+                    setText(item.formatPath(automaton, testedWord));
+                }
+            }
+        });
     }
 
     /**
      * Tests the specified input word on the machine and states whether it was accepted via the results resultsDialog.
+     * The word is tested in the background, so the results dialog is shown straight away with the progress of the test
+     * and the option to cancel it.
      *
-     * @param word to be processed on the finite automaton
+     * @param word               to be processed on the finite automaton
+     * @param isShortestPathOnly whether to stop at a shortest accepting path rather than list every path
      */
-    private void testInputWord(String word) {
+    private void testInputWord(String word, boolean isShortestPathOnly) {
         // Check if an initial state has been defined
         if (!finiteStateMachine.hasInitialState()) {
             Alert errorAlert = AlertCreator.createInitialisedAlert("Result", "First define an initial state!", Alert.AlertType.INFORMATION, workspacePane.getScene().getWindow(), Modality.WINDOW_MODAL);
@@ -113,127 +208,196 @@ public class TestInputDialogController {
             return;
         }
 
-        processWord(initialiseSearchSpace(word));
-
-        if (word.length() == 0) {
-            word = Unicode.EPSILON;
+        automaton = finiteStateMachine.getCompiledAutomaton();
+        testedWord = word;
+        budget = new SearchBudget(timeBudget, memoryBudget);
+        ConfigurationSetMatcher matcher = new ConfigurationSetMatcher(automaton);
+        lblResult.setText("Testing \'" + getDisplayedWord() + "\'...");
+        lblOfPaths.setText("");
+        btnLoadMore.setVisible(false);
+        // The placeholder explaining ε-cycles is only shown once there is a result
+        Node cyclePlaceholder = lvPaths.getPlaceholder();
+        lvPaths.setPlaceholder(new Label(""));
+        if (isShortestPathOnly) {
+            runInBackground(() -> matcher.findShortestAcceptingPath(word, budget), this::listShortestAcceptingPath);
+        } else {
+            runInBackground(() -> {
+                MatchResult result = matcher.match(word, budget);
+                if (result.isComplete()) {
+                    // Count the paths while still in the background, the count is cached by the result
+                    if (result.isAccepted()) {
+                        result.getNumberOfAcceptingPaths();
+                    } else {
+                        result.getNumberOfRejectingPaths();
+                    }
+                }
+                return result;
+            }, result -> {
+                lvPaths.setPlaceholder(cyclePlaceholder);
+                listAllPaths(result);
+            });
         }
+        Platform.runLater(() -> resultsDialog.showAndWait());
+    }
 
-        if (isAccepted) {
-            lblResult.setText("Result: \'" + word + "\' has been Accepted!");
-            lblOfPaths.setText("Accepted Paths*");
-            // Remove possible duplicate paths
-            acceptedPaths = new ArrayList<>(new LinkedHashSet<>(acceptedPaths));
-            addFormattedPathsToListView(acceptedPaths);
+    private <T> void runInBackground(Callable<T> test, Consumer<T> showResult) {
+        Task<T> testTask = new Task<T>() {
+            @Override
+            protected T call() throws Exception {
+                return test.call();
+            }
+        };
+        testTask.setOnSucceeded(event -> {
+            stopProgressUpdates();
+            showResult.accept(testTask.getValue());
+            showResultLabels();
+        });
+        testTask.setOnFailed(event -> {
+            stopProgressUpdates();
+            lblResult.setText("Result: \'" + getDisplayedWord() + "\' could not be tested!");
+            testTask.getException().printStackTrace();
+        });
+        startProgressUpdates();
+
+        Thread backgroundThread = new Thread(testTask);
+        backgroundThread.setDaemon(true);
+        backgroundThread.setName("Testing Input Word");
+        backgroundThread.start();
+    }
+
+    private void showResultLabels() {
+        if (budget.isExhausted()) {
+            lblResult.setText("Result: \'" + getDisplayedWord() + "\' is undecided, testing was " + getStopReasonDescription() + "!");
         } else {
-            lblResult.setText("Result: \'" + word + "\' has been Rejected!");
-            lblOfPaths.setText("Rejected Paths*");
-            // Remove possible duplicate paths
-            rejectedPaths = new ArrayList<>(new LinkedHashSet<>(rejectedPaths));
-            addFormattedPathsToListView(rejectedPaths);
+            lblResult.setText("Result: \'" + getDisplayedWord() + "\' has been " + (isAccepted ? "Accepted!" : "Rejected!"));
         }
-
         if (!isPathsInfinite) {
-            // Remove the asterisk if there is no ε-cycle
-            lblOfPaths.setText(lblOfPaths.getText().substring(0, lblOfPaths.getText().length() - 1));
             // Remove the tooltip if there is no ε-cycle
             lblOfPaths.setTooltip(null);
             // Remove label styling (dotted underline and navy blue text) if there is no ε-cycle
             lblOfPaths.setStyle("-fx-border-style: hidden; -fx-text-fill: #000000");
         }
-        Platform.runLater(() -> resultsDialog.showAndWait());
     }
 
-    private void processWord(ArrayList<ArrayList<State>> workingPaths) {
-        boolean isPathDeadEnd;
-        int numOfPaths;
-
-        while (!workingPaths.isEmpty()) {
-            numOfPaths = workingPaths.size();
-            for (int j = 0; j < numOfPaths; j++) {
-                isPathDeadEnd = true;
-                ArrayList<State> toCheck = workingPaths.remove(0);
-                String remainingWordToBeProcessed = toCheck.get(toCheck.size() - 1).getLabel();
-                State currentStateOfMachine = toCheck.get(toCheck.size() - 2);
-
-                // We check the state at index size - 2 because the format of each path is [state, label, state, label, ...]
-                List<Transition> availableTransitions = finiteStateMachine.getOutgoingTransitions(currentStateOfMachine);
-                for (Transition t : availableTransitions) {
-                    if (t.getSymbol().equals(remainingWordToBeProcessed.charAt(0) + "") || t.getSymbol().equals(Unicode.EPSILON)) {
-                        ArrayList<State> newPath = new ArrayList<>(toCheck);
-                        newPath.add(t.getToState());
-                        isPathDeadEnd = false;
-                        // If an empty word transition was used, the input symbol has not been consumed
-                        if (t.getSymbol().equals(Unicode.EPSILON)) {
-                            newPath.add(new State(remainingWordToBeProcessed, null));
-                        } else {
-                            // Check if the remaining input word length is equal to 1, if it is then consuming it results in the empty word
-                            if (remainingWordToBeProcessed.length() == 1) {
-                                newPath.add(new State(Unicode.EPSILON, null));
-                            } else {
-                                newPath.add(new State(remainingWordToBeProcessed.substring(1), null));
-                            }
-                        }
-                        // Add this new path to our search space if it is not (infinitely) looping
-                        if (!isPathLooping(newPath)) {
-                            workingPaths.add(newPath);
-                        }
-                        // If our old path was processing the empty word, we consider the case of not using the transition
-                        if (remainingWordToBeProcessed.equals(Unicode.EPSILON)) {
-                            // Check the result of this path if we had stopped here
-                            if (currentStateOfMachine.isAccepting()) {
-                                isAccepted = true;
-                                acceptedPaths.add(toCheck);
-                            } else {
-                                rejectedPaths.add(toCheck);
-                            }
-                        }
-                    }
-                }
-                // If the path has ended (i.e. no where to go), check if it was accepting or not
-                if (isPathDeadEnd) {
-                    if (remainingWordToBeProcessed.equals(Unicode.EPSILON) && currentStateOfMachine.isAccepting()) {
-                        isAccepted = true;
-                        acceptedPaths.add(toCheck);
-                    } else {
-                        rejectedPaths.add(toCheck);
-                    }
-                }
+    private String getDisplayedWord() {
+        return (testedWord.length() == 0) ? Unicode.EPSILON : testedWord;
+    }
+
+    private String getStopReasonDescription() {
+        switch (budget.getStopReason()) {
+            case CANCELLED:
+                return "cancelled";
+            case TIMED_OUT:
+                return "stopped after " + (timeBudget / 1000) + " seconds";
+            default:
+                return "stopped after running out of memory";
+        }
+    }
+
+    private void startProgressUpdates() {
+        progressPane.setVisible(true);
+        progressUpdates = new Timeline(new KeyFrame(Duration.millis(PROGRESS_UPDATE_INTERVAL), event ->
+                lblProgress.setText(String.format("%,d configurations explored, %d of %d symbols consumed",
+                        budget.getNumberOfExploredConfigurations(), budget.getPosition(), testedWord.length()))));
+        progressUpdates.setCycleCount(Timeline.INDEFINITE);
+        progressUpdates.play();
+    }
+
+    private void stopProgressUpdates() {
+        progressUpdates.stop();
+        progressPane.setVisible(false);
+    }
+
+    private void listAllPaths(MatchResult result) {
+        if (!result.isComplete()) {
+            // List the configurations reached before the budget was exhausted as a partial result
+            int position = result.getNumberOfProcessedSymbols();
+            lblOfPaths.setText("Reached after " + position + " of " + testedWord.length() + " symbols");
+            for (int state : result.getReachableStates(position)) {
+                lvPaths.getItems().add(new Configuration(state, position));
             }
+            return;
         }
+        isAccepted = result.isAccepted();
+        if (isAccepted) {
+            pathsTitle = "Accepted Paths";
+            paths = result.getAcceptingPaths();
+            numberOfPaths = result.getNumberOfAcceptingPaths();
+        } else {
+            pathsTitle = "Rejected Paths";
+            paths = result.getRejectingPaths();
+            numberOfPaths = result.getNumberOfRejectingPaths();
+        }
+        // The number of paths is only unknown when they loop, even if no loop is reached by the listed paths
+        isPathsInfinite = numberOfPaths == null;
+        loadNextPage();
     }
 
-    private boolean isPathLooping(ArrayList<State> path) {
-        if (path.size() <= 2) {
-            return false;
+    private void listShortestAcceptingPath(Configuration witness) {
+        isAccepted = witness != null;
+        if (budget.isExhausted()) {
+            lblOfPaths.setText("Shortest Accepted Path");
+            lvPaths.setPlaceholder(new Label("No accepting path was found in time"));
+        } else if (isAccepted) {
+            lblOfPaths.setText("Shortest Accepted Path");
+            lvPaths.getItems().setAll(witness);
+        } else {
+            lblOfPaths.setText("Rejected Paths");
+            Label placeholder = new Label("Rejected paths are not listed when only a shortest accepting path is searched for");
+            placeholder.setWrapText(true);
+            lvPaths.setPlaceholder(placeholder);
         }
-        // Checking if the latest <state, word> pair has already been visited, if we have then there exists a loop
-        State wordToFind = path.get(path.size() - 1);
-        State stateToFind = path.get(path.size() - 2);
-        // We check from right to left on the computation
-        for (int k = path.size() - 3; k > 0; k -= 2) {
-            if (!path.get(k).equals(wordToFind)) {
-                // If the word is not equal to the word we are looking for, we know that the rest of the pairs on the left won't be equal either
-                return false;
-            } else if (path.get(k - 1).equals(stateToFind)) {
-                isPathsInfinite = true;
-                return true;
-            }
+    }
+
+    private void loadNextPage() {
+        if (paths == null) {
+            return;
+        }
+        List<Configuration> listedPaths = lvPaths.getItems();
+        int numberOfListedPaths = listedPaths.size();
+        List<Configuration> page = new ArrayList<>(PATHS_PER_PAGE);
+        // Paths are only reconstructed for as many entries as will be listed
+        while (paths.hasNext() && page.size() < PATHS_PER_PAGE && numberOfListedPaths + page.size() < MAX_NUMBER_OF_LISTED_PATHS) {
+            page.add(paths.next());
+        }
+        numberOfListedPaths += page.size();
+        listedPaths.addAll(page);
+
+        boolean isMoreAvailable = paths.hasNext() && numberOfListedPaths < MAX_NUMBER_OF_LISTED_PATHS;
+        btnLoadMore.setDisable(!isMoreAvailable);
+        btnLoadMore.setVisible(paths.hasNext());
+        updatePathsLabel(numberOfListedPaths);
+    }
+
+    private void updatePathsLabel(int numberOfListedPaths) {
+        String title = pathsTitle;
+        if (paths.hasNext()) {
+            String total = (numberOfPaths == null) ? "" : " of " + formatNumberOfPaths(numberOfPaths);
+            title += " (first " + numberOfListedPaths + total + ")";
         }
-        return false;
+        // The asterisk refers to the tooltip explaining the ε-cycle
+        lblOfPaths.setText(isPathsInfinite ? title + "*" : title);
     }
 
-    private void addFormattedPathsToListView(ArrayList<ArrayList<State>> paths) {
-        List<String> toAddToListView = new ArrayList<>(paths.size());
-        for (int i = 0; i < paths.size(); i++) {
-            ArrayList<State> pathToAdd = paths.get(i);
-            StringBuilder formattedPath = new StringBuilder();
-            for (int k = 0; k < pathToAdd.size(); k += 2) {
-                formattedPath.append("(").append(pathToAdd.get(k).getLabel()).append(",").append(pathToAdd.get(k + 1).getLabel()).append("), ");
-            }
-            toAddToListView.add(formattedPath.substring(0, formattedPath.length() - 2));
+    private String formatNumberOfPaths(BigInteger numberOfPaths) {
+        BigDecimal number = new BigDecimal(numberOfPaths);
+        if (number.precision() > MAX_NUMBER_OF_SHOWN_DIGITS) {
+            // e.g. 1.37E+45
+            return number.round(new MathContext(3)).toString();
         }
-        Platform.runLater(() -> lvPaths.getItems().setAll(toAddToListView));
+        return String.format("%,d", numberOfPaths);
+    }
+
+    @FXML
+    private void onLoadMoreButtonClick() {
+        int firstNewPath = lvPaths.getItems().size();
+        loadNextPage();
+        lvPaths.scrollTo(firstNewPath);
+    }
+
+    @FXML
+    private void onCancelButtonClick() {
+        budget.cancel();
     }
 
     @FXML
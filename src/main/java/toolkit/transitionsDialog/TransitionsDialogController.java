@@ -28,9 +28,8 @@ import org.controlsfx.control.spreadsheet.SpreadsheetCell;
 import org.controlsfx.control.spreadsheet.SpreadsheetCellType;
 import org.controlsfx.control.spreadsheet.SpreadsheetView;
 
-import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -199,16 +198,10 @@ public class TransitionsDialogController {
 			ObservableList<SpreadsheetCell> singleRow = FXCollections.observableArrayList();
 			// Identify all the outgoing transitions for the row (state)
 			State fromState = new State(grid.getRowHeaders().get(i), null);
-			List<Transition> outgoingTransitionsForState = finiteStateMachine.getOutgoingTransitions(fromState);
 
 			for (int j = 0; j < numberOfInputSymbols; j++) {
 				// Identify all the outgoing transitions from the row (state) which make use of this column (symbol)
-                List<Transition> outgoingTransitionsForStateSymbolPair = new ArrayList<>();
-				for (Transition transition : outgoingTransitionsForState) {
-					if (transition.getSymbol().equals(grid.getColumnHeaders().get(j))) {
-						outgoingTransitionsForStateSymbolPair.add(transition);
-					}
-				}
+				Set<Transition> outgoingTransitionsForStateSymbolPair = finiteStateMachine.getOutgoingTransitions(fromState, grid.getColumnHeaders().get(j));
 
 				// The cell value should include all the states reachable by this <state,symbol> pair
 				StringBuilder cellValue = new StringBuilder();
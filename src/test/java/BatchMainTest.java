@@ -0,0 +1,65 @@
+package test.java;
+
+import main.java.BatchMain;
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.FsmFileReader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Mert Acar
+ */
+public class BatchMainTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void eachWordShouldBeReportedOnItsOwnLine() throws IOException, URISyntaxException {
+        CompiledAutomaton automaton = FsmFileReader.read(Paths.get(getClass().getResource("/test/test_automata/DFA_010_Suffix.fsm").toURI()));
+        StringWriter results = new StringWriter();
+        BatchMain.testWords(automaton, new BufferedReader(new StringReader("010\n\n0110\n1010\n")), results, false);
+        assertEquals("010\taccepted\nε\trejected\n0110\trejected\n1010\taccepted\n", results.toString());
+    }
+
+    @Test
+    public void witnessShouldBeAnAcceptingPath() throws IOException, URISyntaxException {
+        CompiledAutomaton automaton = FsmFileReader.read(Paths.get(getClass().getResource("/test/test_automata/DFA_010_Suffix.fsm").toURI()));
+        StringWriter results = new StringWriter();
+        BatchMain.testWords(automaton, new BufferedReader(new StringReader("010\n11\n")), results, true);
+        assertEquals("010\taccepted\t(Q0,010), (Q1,10), (Q2,0), (Q3,ε)\n11\trejected\n", results.toString());
+    }
+
+    @Test
+    public void fileContentsShouldBeTestedAsASingleWord() throws IOException, URISyntaxException {
+        CompiledAutomaton automaton = FsmFileReader.read(Paths.get(getClass().getResource("/test/test_automata/DFA_010_Suffix.fsm").toURI()));
+        Path input = temporaryFolder.newFile().toPath();
+        Files.write(input, "010010".getBytes(StandardCharsets.UTF_8));
+
+        StringWriter results = new StringWriter();
+        BatchMain.testFile(automaton, input, results, false);
+        assertEquals(input + "\taccepted\n", results.toString());
+
+        results = new StringWriter();
+        BatchMain.testFile(automaton, input, results, true);
+        assertEquals("3\n6\n", results.toString());
+
+        // Line terminators are a part of the contents, and are not in the alphabet
+        Files.write(input, "010010\n".getBytes(StandardCharsets.UTF_8));
+        results = new StringWriter();
+        BatchMain.testFile(automaton, input, results, false);
+        assertEquals(input + "\trejected\n", results.toString());
+    }
+}
@@ -0,0 +1,93 @@
+package test.java.engine;
+
+import main.java.engine.BatchMatcher;
+import main.java.engine.BitsetNfaRunner;
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.Configuration;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Mert Acar
+ */
+public class BatchMatcherTest {
+
+    @Test
+    public void resultsShouldAgreeWithSequentialMatching() throws InterruptedException {
+        Random random = new Random(13);
+        CompiledAutomaton automaton = BitsetNfaRunnerTest.getRandomAutomaton(random, 60);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            words.add(BitsetNfaRunnerTest.getRandomWord(random, 20));
+        }
+        BitsetNfaRunner runner = new BitsetNfaRunner(automaton);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        BatchMatcher batchMatcher = new BatchMatcher(automaton, pool);
+
+        boolean[] results = batchMatcher.matchAll(words);
+        for (int i = 0; i < words.size(); i++) {
+            assertEquals(runner.matches(words.get(i)), results[i]);
+        }
+
+        List<CharSequence> orderedWords = new ArrayList<>();
+        batchMatcher.matchAll(words.stream(), (word, isAccepted) -> {
+            orderedWords.add(word);
+            assertEquals(runner.matches(word), isAccepted);
+        });
+        assertEquals(words, orderedWords);
+
+        ConcurrentHashMap<CharSequence, Boolean> unorderedResults = new ConcurrentHashMap<>();
+        batchMatcher.matchAllUnordered(words.stream(), unorderedResults::put);
+        assertEquals(new HashSet<>(words).size(), unorderedResults.size());
+        unorderedResults.forEach((word, isAccepted) -> assertEquals(runner.matches(word), isAccepted));
+
+        Configuration[] witnesses = batchMatcher.findShortestAcceptingPaths(words);
+        for (int i = 0; i < words.size(); i++) {
+            assertEquals(results[i], witnesses[i] != null);
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void interruptingTheCallerShouldStopTheWorkers() throws InterruptedException {
+        CompiledAutomaton automaton = BitsetNfaRunnerTest.getRandomAutomaton(new Random(3), 10);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        BatchMatcher batchMatcher = new BatchMatcher(automaton, pool);
+        AtomicLong numberOfResults = new AtomicLong();
+        AtomicBoolean isInterrupted = new AtomicBoolean();
+        Thread caller = new Thread(() -> {
+            try {
+                batchMatcher.matchAllUnordered(Stream.generate(() -> "ab"), (word, isAccepted) -> numberOfResults.incrementAndGet());
+            } catch (InterruptedException e) {
+                isInterrupted.set(true);
+            }
+        });
+        caller.start();
+        while (numberOfResults.get() == 0) {
+            Thread.sleep(1);
+        }
+        caller.interrupt();
+        caller.join(5000);
+        assertTrue(isInterrupted.get());
+
+        // The words are endless, so the pool only goes quiet if the workers have stopped
+        assertTrue(pool.awaitQuiescence(5, TimeUnit.SECONDS));
+        long stoppedAt = numberOfResults.get();
+        Thread.sleep(50);
+        assertEquals(stoppedAt, numberOfResults.get());
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,82 @@
+package test.java.engine;
+
+import main.java.engine.BitsetNfaRunner;
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.ConfigurationSetMatcher;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Mert Acar
+ */
+public class BitsetNfaRunnerTest {
+
+    @Test
+    public void emptyWordTransitionsShouldBeFollowedWithoutConsumingInput() {
+        // Q0 -ε-> Q1 -a-> Q2 -ε-> Q3 (accepting), with an ε-cycle between Q2 and Q3
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int q0 = builder.addState("Q0", false);
+        int q1 = builder.addState("Q1", false);
+        int q2 = builder.addState("Q2", false);
+        int q3 = builder.addState("Q3", true);
+        int a = builder.addSymbol('a');
+        builder.addTransition(q0, CompiledAutomaton.EPSILON, q1);
+        builder.addTransition(q1, a, q2);
+        builder.addTransition(q2, CompiledAutomaton.EPSILON, q3);
+        builder.addTransition(q3, CompiledAutomaton.EPSILON, q2);
+        BitsetNfaRunner runner = new BitsetNfaRunner(builder.setInitialState(q0).build());
+
+        assertTrue(runner.isActive(q1));
+        assertFalse(runner.isAccepting());
+        assertTrue(runner.step('a'));
+        assertTrue(runner.isActive(q2));
+        assertTrue(runner.isActive(q3));
+        assertTrue(runner.isAccepting());
+        assertFalse(runner.step('b'));
+
+        assertTrue(runner.matches("a"));
+        assertFalse(runner.matches("aa"));
+        assertFalse(runner.matches(""));
+    }
+
+    @Test
+    public void shouldAgreeWithConfigurationSetMatcherOnRandomAutomata() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 50; trial++) {
+            CompiledAutomaton automaton = getRandomAutomaton(random, 70);
+            BitsetNfaRunner runner = new BitsetNfaRunner(automaton);
+            ConfigurationSetMatcher matcher = new ConfigurationSetMatcher(automaton);
+            for (int i = 0; i < 20; i++) {
+                String word = getRandomWord(random, 12);
+                assertEquals(matcher.match(word).isAccepted(), runner.matches(word));
+            }
+        }
+    }
+
+    static CompiledAutomaton getRandomAutomaton(Random random, int numberOfStates) {
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        for (int i = 0; i < numberOfStates; i++) {
+            builder.addState("Q" + i, random.nextInt(4) == 0);
+        }
+        int[] symbols = {CompiledAutomaton.EPSILON, builder.addSymbol('a'), builder.addSymbol('b')};
+        for (int i = 0; i < numberOfStates * 3; i++) {
+            // Empty word transitions are rarer so that the automata do not collapse into a single closure
+            int symbol = symbols[random.nextInt(8) == 0 ? 0 : 1 + random.nextInt(2)];
+            builder.addTransition(random.nextInt(numberOfStates), symbol, random.nextInt(numberOfStates));
+        }
+        return builder.setInitialState(0).build();
+    }
+
+    static String getRandomWord(Random random, int maxLength) {
+        StringBuilder word = new StringBuilder();
+        for (int length = random.nextInt(maxLength); length > 0; length--) {
+            word.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package test.java.engine;
+
+import main.java.engine.CompiledAutomaton;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Mert Acar
+ */
+public class CompiledAutomatonTest {
+
+    @Test
+    public void transitionsShouldBeGroupedByStateAndSymbol() {
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int q0 = builder.addState("Q0", false);
+        int q1 = builder.addState("Q1", true);
+        int a = builder.addSymbol('a');
+        int b = builder.addSymbol('b');
+        builder.addTransition(q0, b, q0);
+        builder.addTransition(q0, a, q1);
+        builder.addTransition(q0, a, q0);
+        builder.addTransition(q1, CompiledAutomaton.EPSILON, q0);
+        CompiledAutomaton automaton = builder.setInitialState(q0).build();
+
+        assertEquals(2, automaton.getTransitionsEnd(q0, a) - automaton.getTransitionsStart(q0, a));
+        assertEquals(1, automaton.getTransitionsEnd(q0, b) - automaton.getTransitionsStart(q0, b));
+        assertEquals(0, automaton.getTransitionsEnd(q1, a) - automaton.getTransitionsStart(q1, a));
+        assertEquals(q0, automaton.getTarget(automaton.getTransitionsStart(q1, CompiledAutomaton.EPSILON)));
+        // Transition ids should refer to the order in which the transitions were added
+        assertEquals(0, automaton.getTransitionId(automaton.getTransitionsStart(q0, b)));
+        assertEquals(3, automaton.getTransitionId(automaton.getTransitionsStart(q1, CompiledAutomaton.EPSILON)));
+        assertTrue(automaton.hasEpsilonTransitions());
+    }
+
+    @Test
+    public void lookupsShouldResolveLabelsAndCharactersToIds() {
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int q0 = builder.addState("Q0", false);
+        int q1 = builder.addState("Q1", true);
+        int a = builder.addSymbol('a');
+        builder.addTransition(q0, a, q1);
+        CompiledAutomaton automaton = builder.build();
+
+        assertEquals(q1, automaton.getStateId("Q1"));
+        assertEquals(CompiledAutomaton.NONE, automaton.getStateId("Q2"));
+        assertEquals(a, automaton.getSymbolId('a'));
+        assertEquals('a', automaton.getSymbol(a));
+        assertEquals(CompiledAutomaton.NONE, automaton.getSymbolId('z'));
+        assertFalse(automaton.hasInitialState());
+        assertTrue(automaton.isAccepting(q1));
+        assertFalse(automaton.hasEpsilonTransitions());
+    }
+}
@@ -0,0 +1,198 @@
+package test.java.engine;
+
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.Configuration;
+import main.java.engine.ConfigurationSetMatcher;
+import main.java.engine.MatchResult;
+import main.java.engine.SearchBudget;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Mert Acar
+ */
+public class ConfigurationSetMatcherTest {
+
+    @Test
+    public void shouldAcceptWordsEndingWithSuffix() {
+        ConfigurationSetMatcher matcher = new ConfigurationSetMatcher(getSuffixAutomaton());
+        assertTrue(matcher.match("01010101010").isAccepted());
+        assertFalse(matcher.match("011101110").isAccepted());
+        assertFalse(matcher.match("").isAccepted());
+    }
+
+    @Test
+    public void stuckPathsShouldBeListedAsRejected() {
+        MatchResult result = new ConfigurationSetMatcher(getSuffixAutomaton()).match("01x");
+        assertFalse(result.isAccepted());
+        List<String> paths = collect(result, result.getRejectingPaths());
+        assertEquals(2, paths.size());
+        assertTrue(paths.contains("(Q0,01x), (Q0,1x), (Q0,x)"));
+        assertTrue(paths.contains("(Q0,01x), (Q1,1x), (Q2,x)"));
+    }
+
+    @Test
+    public void emptyWordLoopsShouldBeDetectedAndSkipped() {
+        // Q0 -ε-> Q1 -ε-> Q0 where only Q1 is accepting
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int q0 = builder.addState("Q0", false);
+        int q1 = builder.addState("Q1", true);
+        builder.addTransition(q1, CompiledAutomaton.EPSILON, q0);
+        builder.addTransition(q0, CompiledAutomaton.EPSILON, q1);
+        MatchResult result = new ConfigurationSetMatcher(builder.setInitialState(q0).build()).match("");
+
+        assertTrue(result.isAccepted());
+        MatchResult.PathIterator acceptingPaths = result.getAcceptingPaths();
+        List<String> paths = collect(result, acceptingPaths);
+        assertEquals(1, paths.size());
+        assertEquals("(Q0,ε), (Q1,ε)", paths.get(0));
+        assertTrue(acceptingPaths.isLoopDetected());
+        assertNull(result.getNumberOfAcceptingPaths());
+    }
+
+    @Test
+    public void ambiguousAutomatonShouldBeProcessedWithoutEnumeratingPaths() {
+        // Every state can move to every state on 'a', so there are 30^40 paths for a word of 40 symbols
+        int numberOfStates = 30;
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        for (int i = 0; i < numberOfStates; i++) {
+            builder.addState("Q" + i, i == numberOfStates - 1);
+        }
+        int a = builder.addSymbol('a');
+        for (int from = 0; from < numberOfStates; from++) {
+            for (int to = 0; to < numberOfStates; to++) {
+                builder.addTransition(from, a, to);
+            }
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            word.append('a');
+        }
+        MatchResult result = new ConfigurationSetMatcher(builder.setInitialState(0).build()).match(word);
+        assertTrue(result.isAccepted());
+        assertEquals(1 + 40 * numberOfStates, result.getNumberOfConfigurations());
+        // Individual paths can still be reconstructed on demand
+        Configuration path = result.getAcceptingPaths().next();
+        assertEquals(41, path.getLength());
+        assertTrue(result.getAutomaton().isAccepting(path.getState()));
+        // Only the last state is fixed by the paths which end in the accepting state
+        assertEquals(BigInteger.valueOf(numberOfStates).pow(39), result.getNumberOfAcceptingPaths());
+        assertEquals(BigInteger.valueOf(numberOfStates).pow(40).subtract(BigInteger.valueOf(numberOfStates).pow(39)), result.getNumberOfRejectingPaths());
+    }
+
+    @Test
+    public void pathCountsShouldAgreeWithEnumeration() {
+        Random random = new Random(15);
+        for (int i = 0; i < 200; i++) {
+            CompiledAutomaton automaton = BitsetNfaRunnerTest.getRandomAutomaton(random, 6);
+            MatchResult result = new ConfigurationSetMatcher(automaton).match(BitsetNfaRunnerTest.getRandomWord(random, 8));
+            MatchResult.PathIterator acceptingPaths = result.getAcceptingPaths();
+            long numberOfAcceptingPaths = countRemaining(acceptingPaths);
+            MatchResult.PathIterator rejectingPaths = result.getRejectingPaths();
+            long numberOfRejectingPaths = countRemaining(rejectingPaths);
+
+            if (acceptingPaths.isLoopDetected()) {
+                assertNull(result.getNumberOfAcceptingPaths());
+            } else {
+                assertEquals(BigInteger.valueOf(numberOfAcceptingPaths), result.getNumberOfAcceptingPaths());
+            }
+            if (rejectingPaths.isLoopDetected()) {
+                assertNull(result.getNumberOfRejectingPaths());
+            } else {
+                assertEquals(BigInteger.valueOf(numberOfRejectingPaths), result.getNumberOfRejectingPaths());
+            }
+        }
+    }
+
+    private CompiledAutomaton getSuffixAutomaton() {
+        // Accepts binary words ending with 010
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int q0 = builder.addState("Q0", false);
+        int q1 = builder.addState("Q1", false);
+        int q2 = builder.addState("Q2", false);
+        int q3 = builder.addState("Q3", true);
+        int zero = builder.addSymbol('0');
+        int one = builder.addSymbol('1');
+        builder.addTransition(q0, zero, q0);
+        builder.addTransition(q0, one, q0);
+        builder.addTransition(q0, zero, q1);
+        builder.addTransition(q1, one, q2);
+        builder.addTransition(q2, zero, q3);
+        return builder.setInitialState(q0).build();
+    }
+
+    @Test
+    public void shortestAcceptingPathShouldBeTheShortestListedPath() {
+        Random random = new Random(17);
+        for (int i = 0; i < 200; i++) {
+            ConfigurationSetMatcher matcher = new ConfigurationSetMatcher(BitsetNfaRunnerTest.getRandomAutomaton(random, 6));
+            String word = BitsetNfaRunnerTest.getRandomWord(random, 8);
+            MatchResult result = matcher.match(word);
+            Configuration witness = matcher.findShortestAcceptingPath(word);
+
+            assertEquals(result.isAccepted(), witness != null);
+            if (witness != null) {
+                int shortestLength = Integer.MAX_VALUE;
+                for (MatchResult.PathIterator paths = result.getAcceptingPaths(); paths.hasNext(); ) {
+                    shortestLength = Math.min(shortestLength, paths.next().getLength());
+                }
+                assertEquals(shortestLength, witness.getLength());
+                assertEquals(word.length(), witness.getPosition());
+                assertTrue(result.getAutomaton().isAccepting(witness.getState()));
+            }
+        }
+    }
+
+    @Test
+    public void exhaustedBudgetShouldStopTheSearchWithPartialResults() {
+        ConfigurationSetMatcher matcher = new ConfigurationSetMatcher(getSuffixAutomaton());
+        String word = "010101010101010";
+
+        SearchBudget generousBudget = new SearchBudget(60000, 1 << 20);
+        MatchResult result = matcher.match(word, generousBudget);
+        assertTrue(result.isComplete());
+        assertTrue(result.isAccepted());
+        assertFalse(generousBudget.isExhausted());
+        assertEquals(result.getNumberOfConfigurations(), generousBudget.getNumberOfExploredConfigurations());
+        assertEquals(word.length(), generousBudget.getPosition());
+
+        // Every position holds at most three configurations of four bytes each
+        SearchBudget smallBudget = new SearchBudget(60000, 40);
+        result = matcher.match(word, smallBudget);
+        assertFalse(result.isComplete());
+        assertFalse(result.isAccepted());
+        assertEquals(SearchBudget.StopReason.OUT_OF_MEMORY, smallBudget.getStopReason());
+        assertTrue(result.getNumberOfProcessedSymbols() < word.length());
+        assertEquals(smallBudget.getPosition(), result.getNumberOfProcessedSymbols());
+
+        SearchBudget cancelledBudget = new SearchBudget(60000, 1 << 20);
+        cancelledBudget.cancel();
+        assertNull(matcher.findShortestAcceptingPath(word, cancelledBudget));
+        assertEquals(SearchBudget.StopReason.CANCELLED, cancelledBudget.getStopReason());
+        assertNotNull(matcher.findShortestAcceptingPath(word, new SearchBudget(60000, 1 << 20)));
+    }
+
+    private long countRemaining(MatchResult.PathIterator paths) {
+        long count = 0;
+        for (; paths.hasNext(); paths.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    private List<String> collect(MatchResult result, MatchResult.PathIterator paths) {
+        List<String> formattedPaths = new ArrayList<>();
+        paths.forEachRemaining(path -> formattedPaths.add(path.formatPath(result.getAutomaton(), result.getWord())));
+        return formattedPaths;
+    }
+}
@@ -0,0 +1,97 @@
+package test.java.engine;
+
+import main.java.engine.BitsetNfaRunner;
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.Determiniser;
+import main.java.engine.SearchBudget;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Mert Acar
+ */
+public class DeterminiserTest {
+
+    @Test
+    public void emptyWordTransitionsShouldBeRemoved() {
+        // Q0 -ε-> Q1 -a-> Q2 -ε-> Q0, with Q2 accepting
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int q0 = builder.addState("Q0", false);
+        int q1 = builder.addState("Q1", false);
+        int q2 = builder.addState("Q2", true);
+        int a = builder.addSymbol('a');
+        builder.addTransition(q0, CompiledAutomaton.EPSILON, q1);
+        builder.addTransition(q1, a, q2);
+        builder.addTransition(q2, CompiledAutomaton.EPSILON, q0);
+        CompiledAutomaton dfa = Determiniser.determinise(builder.setInitialState(q0).build());
+
+        assertEquals(2, dfa.getNumberOfStates());
+        assertEquals("Q0", dfa.getStateLabel(dfa.getInitialState()));
+        assertEquals(a, dfa.getSymbolId('a'));
+        assertFalse(dfa.hasEpsilonTransitions());
+        BitsetNfaRunner runner = new BitsetNfaRunner(dfa);
+        assertTrue(runner.matches("aaa"));
+        assertFalse(runner.matches(""));
+    }
+
+    @Test
+    public void shouldBeDeterministicAndEquivalentOnRandomAutomata() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 30; trial++) {
+            CompiledAutomaton automaton = BitsetNfaRunnerTest.getRandomAutomaton(random, 40);
+            CompiledAutomaton dfa = Determiniser.determinise(automaton);
+            for (int state = 0; state < dfa.getNumberOfStates(); state++) {
+                for (int symbol = 0; symbol < dfa.getNumberOfSymbols(); symbol++) {
+                    int numberOfTransitions = dfa.getTransitionsEnd(state, symbol) - dfa.getTransitionsStart(state, symbol);
+                    assertTrue(numberOfTransitions <= ((symbol == CompiledAutomaton.EPSILON) ? 0 : 1));
+                }
+            }
+            BitsetNfaRunner expected = new BitsetNfaRunner(automaton);
+            BitsetNfaRunner actual = new BitsetNfaRunner(dfa);
+            for (int i = 0; i < 20; i++) {
+                String word = BitsetNfaRunnerTest.getRandomWord(random, 12);
+                assertEquals(expected.matches(word), actual.matches(word));
+            }
+        }
+    }
+
+    @Test
+    public void exhaustedBudgetShouldStopTheConstruction() {
+        // Accepts the words whose 12th symbol from the end is an 'a', whose DFA needs 2^12 states
+        int n = 12;
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        for (int i = 0; i <= n; i++) {
+            builder.addState("Q" + i, i == n);
+        }
+        int a = builder.addSymbol('a');
+        int b = builder.addSymbol('b');
+        builder.addTransition(0, a, 0);
+        builder.addTransition(0, b, 0);
+        builder.addTransition(0, a, 1);
+        for (int i = 1; i < n; i++) {
+            builder.addTransition(i, a, i + 1);
+            builder.addTransition(i, b, i + 1);
+        }
+        CompiledAutomaton automaton = builder.setInitialState(0).build();
+
+        SearchBudget smallBudget = new SearchBudget(60000, 1 << 14);
+        assertNull(Determiniser.determinise(automaton, smallBudget));
+        assertEquals(SearchBudget.StopReason.OUT_OF_MEMORY, smallBudget.getStopReason());
+
+        SearchBudget cancelledBudget = new SearchBudget(60000, 1 << 30);
+        cancelledBudget.cancel();
+        assertNull(Determiniser.determinise(automaton, cancelledBudget));
+        assertEquals(SearchBudget.StopReason.CANCELLED, cancelledBudget.getStopReason());
+
+        CompiledAutomaton dfa = Determiniser.determinise(automaton, new SearchBudget(60000, 1 << 30));
+        assertNotNull(dfa);
+        assertEquals(1 << n, dfa.getNumberOfStates());
+    }
+}
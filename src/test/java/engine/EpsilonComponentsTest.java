@@ -0,0 +1,77 @@
+package test.java.engine;
+
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.EpsilonComponents;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Mert Acar
+ */
+public class EpsilonComponentsTest {
+
+    @Test
+    public void componentsShouldMatchEpsilonReachability() {
+        Random random = new Random(19);
+        for (int i = 0; i < 200; i++) {
+            CompiledAutomaton automaton = BitsetNfaRunnerTest.getRandomAutomaton(random, 12);
+            EpsilonComponents components = new EpsilonComponents(automaton);
+            boolean[][] isReachable = getEpsilonReachability(automaton);
+            int numberOfStates = automaton.getNumberOfStates();
+
+            for (int from = 0; from < numberOfStates; from++) {
+                assertEquals(isReachable[from][from], components.isOnCycle(from));
+                for (int to = 0; to < numberOfStates; to++) {
+                    boolean isStronglyConnected = from == to || (isReachable[from][to] && isReachable[to][from]);
+                    assertEquals(isStronglyConnected, components.getComponent(from) == components.getComponent(to));
+                }
+                // Components are numbered in reverse topological order
+                for (int k = automaton.getTransitionsStart(from, CompiledAutomaton.EPSILON); k < automaton.getTransitionsEnd(from, CompiledAutomaton.EPSILON); k++) {
+                    assertTrue(components.getComponent(automaton.getTarget(k)) <= components.getComponent(from));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void selfLoopShouldFormACycle() {
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int q0 = builder.addState("Q0", false);
+        int q1 = builder.addState("Q1", true);
+        builder.addTransition(q0, CompiledAutomaton.EPSILON, q1);
+        EpsilonComponents components = new EpsilonComponents(builder.setInitialState(q0).build());
+        assertFalse(components.hasCycles());
+        assertEquals(2, components.getNumberOfComponents());
+
+        builder.addTransition(q1, CompiledAutomaton.EPSILON, q1);
+        components = new EpsilonComponents(builder.build());
+        assertTrue(components.hasCycles());
+        assertTrue(components.isOnCycle(q1, q1));
+        assertFalse(components.isOnCycle(q0, q1));
+        assertFalse(components.isOnCycle(q0));
+    }
+
+    private boolean[][] getEpsilonReachability(CompiledAutomaton automaton) {
+        // Reachability through at least one empty word transition, by the Floyd-Warshall transitive closure
+        int numberOfStates = automaton.getNumberOfStates();
+        boolean[][] isReachable = new boolean[numberOfStates][numberOfStates];
+        for (int from = 0; from < numberOfStates; from++) {
+            for (int k = automaton.getTransitionsStart(from, CompiledAutomaton.EPSILON); k < automaton.getTransitionsEnd(from, CompiledAutomaton.EPSILON); k++) {
+                isReachable[from][automaton.getTarget(k)] = true;
+            }
+        }
+        for (int via = 0; via < numberOfStates; via++) {
+            for (int from = 0; from < numberOfStates; from++) {
+                for (int to = 0; to < numberOfStates; to++) {
+                    isReachable[from][to] |= isReachable[from][via] && isReachable[via][to];
+                }
+            }
+        }
+        return isReachable;
+    }
+}
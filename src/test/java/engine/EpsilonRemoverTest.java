@@ -0,0 +1,80 @@
+package test.java.engine;
+
+import main.java.engine.BitsetNfaRunner;
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.EpsilonRemover;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Mert Acar
+ */
+public class EpsilonRemoverTest {
+
+    @Test
+    public void removingEpsilonTransitionsShouldPreserveTheLanguage() {
+        Random random = new Random(20);
+        for (int n = 0; n < 100; n++) {
+            CompiledAutomaton automaton = BitsetNfaRunnerTest.getRandomAutomaton(random, 30);
+            CompiledAutomaton epsilonFree = EpsilonRemover.removeEpsilonTransitions(automaton);
+            assertFalse(epsilonFree.hasEpsilonTransitions());
+
+            BitsetNfaRunner expected = new BitsetNfaRunner(automaton);
+            BitsetNfaRunner actual = new BitsetNfaRunner(epsilonFree);
+            for (int i = 0; i < 20; i++) {
+                String word = BitsetNfaRunnerTest.getRandomWord(random, 12);
+                assertEquals(expected.matches(word), actual.matches(word));
+            }
+        }
+    }
+
+    @Test
+    public void removingEpsilonTransitionsShouldKeepTheStates() {
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int q0 = builder.addState("Q0", false);
+        int q1 = builder.addState("Q1", false);
+        int q2 = builder.addState("Q2", true);
+        int a = builder.addSymbol('a');
+        builder.addTransition(q0, CompiledAutomaton.EPSILON, q1);
+        builder.addTransition(q1, CompiledAutomaton.EPSILON, q0);
+        builder.addTransition(q1, a, q2);
+        builder.addTransition(q2, CompiledAutomaton.EPSILON, q1);
+        CompiledAutomaton epsilonFree = EpsilonRemover.removeEpsilonTransitions(builder.setInitialState(q0).build());
+
+        assertEquals(3, epsilonFree.getNumberOfStates());
+        assertEquals(q0, epsilonFree.getInitialState());
+        for (int state = 0; state < 3; state++) {
+            assertEquals("Q" + state, epsilonFree.getStateLabel(state));
+            // Every state reaches Q1 through empty word transitions, so every state can consume 'a' into Q2 once
+            assertEquals(1, epsilonFree.getTransitionsEnd(state, a) - epsilonFree.getTransitionsStart(state, a));
+            assertEquals(q2, epsilonFree.getTarget(epsilonFree.getTransitionsStart(state, a)));
+        }
+        assertFalse(epsilonFree.isAccepting(q0));
+        assertTrue(epsilonFree.isAccepting(q2));
+    }
+
+    @Test
+    public void acceptanceShouldPropagateAlongLongEpsilonChains() {
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int numberOfStates = 2000;
+        for (int state = 0; state < numberOfStates; state++) {
+            builder.addState("Q" + state, state == numberOfStates - 1);
+        }
+        // The chain loops back on itself halfway, so it is made up of a cycle followed by single state components
+        for (int state = 0; state + 1 < numberOfStates; state++) {
+            builder.addTransition(state, CompiledAutomaton.EPSILON, state + 1);
+        }
+        builder.addTransition(numberOfStates / 2, CompiledAutomaton.EPSILON, 0);
+        CompiledAutomaton epsilonFree = EpsilonRemover.removeEpsilonTransitions(builder.setInitialState(0).build());
+
+        for (int state = 0; state < numberOfStates; state++) {
+            assertTrue(epsilonFree.isAccepting(state));
+        }
+        assertTrue(new BitsetNfaRunner(epsilonFree).matches(""));
+    }
+}
@@ -0,0 +1,46 @@
+package test.java.engine;
+
+import main.java.engine.BitsetNfaRunner;
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.FsmFileReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Mert Acar
+ */
+public class FsmFileReaderTest {
+
+    @Test
+    public void savedAutomatonShouldBeReadWithoutTheToolkit() throws IOException, URISyntaxException {
+        CompiledAutomaton automaton = FsmFileReader.read(Paths.get(getClass().getResource("/test/test_automata/automatonWithEmptyWordTransition.fsm").toURI()));
+
+        assertEquals(3, automaton.getNumberOfStates());
+        assertEquals(8, automaton.getNumberOfTransitions());
+        assertEquals("Q0", automaton.getStateLabel(automaton.getInitialState()));
+        assertTrue(automaton.isAccepting(automaton.getStateId("Q2")));
+        assertTrue(automaton.hasEpsilonTransitions());
+        BitsetNfaRunner runner = new BitsetNfaRunner(automaton);
+        assertTrue(runner.matches(""));
+        assertTrue(runner.matches("ab"));
+    }
+
+    @Test
+    public void missingAndDuplicateAttributesShouldBeIgnored() throws IOException {
+        String file = "states={Q0,1.0,1.0}{Q1,2.0,2.0}\nalphabet=\ninitialState=\nacceptingStates=[]\n" +
+                "transitions={Q0,a,Q1,0.5,0.0,0.0,false}{Q0,a,Q1,0.5,0.0,0.0,false}{Q0,a,Q2,0.5,0.0,0.0,false}";
+        CompiledAutomaton automaton = FsmFileReader.read(new StringReader(file));
+
+        assertEquals(2, automaton.getNumberOfStates());
+        assertEquals(1, automaton.getNumberOfTransitions());
+        assertFalse(automaton.hasInitialState());
+    }
+}
@@ -0,0 +1,89 @@
+package test.java.engine;
+
+import main.java.engine.BitsetNfaRunner;
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.Determiniser;
+import main.java.engine.HopcroftMinimiser;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Mert Acar
+ */
+public class HopcroftMinimiserTest {
+
+    @Test
+    public void equivalentStatesShouldBeMerged() {
+        // Counts the a's modulo 2 using 4 reachable states, plus the unreachable states Q4 and Q5
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int[] states = new int[6];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = builder.addState("Q" + i, i == 1 || i == 3);
+        }
+        int a = builder.addSymbol('a');
+        int b = builder.addSymbol('b');
+        for (int i = 0; i < 4; i++) {
+            builder.addTransition(states[i], a, states[(i + 1) % 4]);
+            builder.addTransition(states[i], b, states[i]);
+        }
+        builder.addTransition(states[4], a, states[1]);
+        CompiledAutomaton minimal = HopcroftMinimiser.minimise(builder.setInitialState(states[0]).build());
+
+        assertEquals(2, minimal.getNumberOfStates());
+        assertEquals(4, minimal.getNumberOfTransitions());
+        assertFalse(minimal.isAccepting(minimal.getInitialState()));
+        BitsetNfaRunner runner = new BitsetNfaRunner(minimal);
+        assertTrue(runner.matches("babaa"));
+        assertFalse(runner.matches("abba"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonDeterministicAutomataShouldBeRejected() {
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int q0 = builder.addState("Q0", false);
+        builder.addTransition(q0, CompiledAutomaton.EPSILON, q0);
+        HopcroftMinimiser.minimise(builder.setInitialState(q0).build());
+    }
+
+    @Test
+    public void shouldBeMinimalAndEquivalentOnRandomAutomata() {
+        Random random = new Random(5);
+        for (int trial = 0; trial < 30; trial++) {
+            CompiledAutomaton automaton = BitsetNfaRunnerTest.getRandomAutomaton(random, 40);
+            CompiledAutomaton minimal = HopcroftMinimiser.minimise(Determiniser.determinise(automaton));
+            // Minimising a minimal automaton cannot remove any further states
+            assertEquals(minimal.getNumberOfStates(), HopcroftMinimiser.minimise(minimal).getNumberOfStates());
+            BitsetNfaRunner expected = new BitsetNfaRunner(automaton);
+            BitsetNfaRunner actual = new BitsetNfaRunner(minimal);
+            for (int i = 0; i < 20; i++) {
+                String word = BitsetNfaRunnerTest.getRandomWord(random, 12);
+                assertEquals(expected.matches(word), actual.matches(word));
+            }
+        }
+    }
+
+    @Test
+    public void largeAutomataShouldBeMinimisedQuickly() {
+        // A chain of 100000 states accepting words whose length is a multiple of 10, padded with redundant states
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int numberOfStates = 100000;
+        for (int i = 0; i < numberOfStates; i++) {
+            builder.addState("Q" + i, i % 10 == 0);
+        }
+        int a = builder.addSymbol('a');
+        int b = builder.addSymbol('b');
+        for (int i = 0; i < numberOfStates; i++) {
+            builder.addTransition(i, a, (i + 1) % numberOfStates);
+            builder.addTransition(i, b, (i + 1) % numberOfStates);
+        }
+        long start = System.nanoTime();
+        CompiledAutomaton minimal = HopcroftMinimiser.minimise(builder.setInitialState(0).build());
+        assertEquals(10, minimal.getNumberOfStates());
+        assertTrue(System.nanoTime() - start < 10_000_000_000L);
+    }
+}
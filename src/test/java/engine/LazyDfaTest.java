@@ -0,0 +1,65 @@
+package test.java.engine;
+
+import main.java.engine.BitsetNfaRunner;
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.LazyDfa;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Mert Acar
+ */
+public class LazyDfaTest {
+
+    @Test
+    public void transitionsShouldBeCachedAcrossWords() {
+        // Accepts words over {0,1} whose third last symbol is 1
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int q0 = builder.addState("Q0", false);
+        int q1 = builder.addState("Q1", false);
+        int q2 = builder.addState("Q2", false);
+        int q3 = builder.addState("Q3", true);
+        int zero = builder.addSymbol('0');
+        int one = builder.addSymbol('1');
+        builder.addTransition(q0, zero, q0);
+        builder.addTransition(q0, one, q0);
+        builder.addTransition(q0, one, q1);
+        builder.addTransition(q1, zero, q2);
+        builder.addTransition(q1, one, q2);
+        builder.addTransition(q2, zero, q3);
+        builder.addTransition(q2, one, q3);
+        LazyDfa lazyDfa = new LazyDfa(builder.setInitialState(q0).build());
+
+        assertTrue(lazyDfa.matches("0100"));
+        assertFalse(lazyDfa.matches("0010"));
+        assertFalse(lazyDfa.matches("01x0"));
+        int numberOfStates = lazyDfa.getNumberOfCachedStates();
+        assertTrue(lazyDfa.matches("100"));
+        assertEquals(numberOfStates, lazyDfa.getNumberOfCachedStates());
+        // The subset construction of this automaton has 8 reachable states
+        assertTrue(lazyDfa.matches("0001011100"));
+        assertEquals(8, lazyDfa.getNumberOfCachedStates());
+        assertEquals(0, lazyDfa.getNumberOfFlushes());
+    }
+
+    @Test
+    public void shouldStayCorrectWhenTheCacheIsFlushed() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 30; trial++) {
+            CompiledAutomaton automaton = BitsetNfaRunnerTest.getRandomAutomaton(random, 70);
+            BitsetNfaRunner runner = new BitsetNfaRunner(automaton);
+            // Only enough memory for a couple of DFA states, so the cache has to be flushed repeatedly
+            LazyDfa lazyDfa = new LazyDfa(automaton, 64);
+            for (int i = 0; i < 20; i++) {
+                String word = BitsetNfaRunnerTest.getRandomWord(random, 12);
+                assertEquals(runner.matches(word), lazyDfa.matches(word));
+                assertTrue(lazyDfa.getMemoryUsage() <= 64 || lazyDfa.getNumberOfCachedStates() == 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package test.java.engine;
+
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.ParallelDfaMatcher;
+
+import java.util.Random;
+
+/**
+ * @author Mert Acar
+ * <p>
+ * Compares sequential and speculative parallel matching of a single long input on a random complete DFA.
+ * Usage: {@code ParallelDfaMatcherBenchmark [<number of characters> [<number of states>]]}
+ * </p>
+ */
+public class ParallelDfaMatcherBenchmark {
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        int length = (args.length > 0) ? Integer.parseInt(args[0]) : 1 << 26;
+        int numberOfStates = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+        Random random = new Random(42);
+
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        for (int i = 0; i < numberOfStates; i++) {
+            builder.addState("Q" + i, random.nextInt(4) == 0);
+        }
+        int[] symbols = {builder.addSymbol('a'), builder.addSymbol('b'), builder.addSymbol('c')};
+        for (int i = 0; i < numberOfStates; i++) {
+            for (int symbol : symbols) {
+                builder.addTransition(i, symbol, random.nextInt(numberOfStates));
+            }
+        }
+        ParallelDfaMatcher matcher = new ParallelDfaMatcher(builder.setInitialState(0).build());
+
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(symbols.length));
+        }
+        String input = new String(chars);
+
+        System.out.println("Characters: " + length + ", states: " + numberOfStates
+                + ", cores: " + Runtime.getRuntime().availableProcessors());
+        long sequential = Long.MAX_VALUE;
+        long parallel = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            boolean expected = matcher.matchesSequentially(input);
+            sequential = Math.min(sequential, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            boolean actual = matcher.matches(input);
+            parallel = Math.min(parallel, System.nanoTime() - start);
+            if (expected != actual) {
+                throw new IllegalStateException("Parallel result differs from sequential result");
+            }
+        }
+        System.out.printf("Sequential: %d ms%n", sequential / 1000000);
+        System.out.printf("Parallel:   %d ms%n", parallel / 1000000);
+        System.out.printf("Speed-up:   %.2fx%n", (double) sequential / parallel);
+    }
+}
@@ -0,0 +1,88 @@
+package test.java.engine;
+
+import main.java.engine.BitsetNfaRunner;
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.ParallelDfaMatcher;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Mert Acar
+ */
+public class ParallelDfaMatcherTest {
+
+    @Test
+    public void resultsShouldAgreeWithSequentialMatching() {
+        Random random = new Random(17);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int i = 0; i < 20; i++) {
+            CompiledAutomaton automaton = BitsetNfaRunnerTest.getRandomAutomaton(random, 30);
+            BitsetNfaRunner runner = new BitsetNfaRunner(automaton);
+            ParallelDfaMatcher matcher = new ParallelDfaMatcher(automaton, pool, 1);
+            for (int j = 0; j < 200; j++) {
+                String word = BitsetNfaRunnerTest.getRandomWord(random, 40);
+                assertEquals(runner.matches(word), matcher.matches(word));
+                assertEquals(runner.matches(word), matcher.matchesSequentially(word));
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void longInputsShouldBeStitchedAcrossChunks() {
+        // Accepts words whose a's count 1 and b's count 2, summing to a multiple of 7
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        for (int i = 0; i < 7; i++) {
+            builder.addState("Q" + i, i == 0);
+        }
+        int a = builder.addSymbol('a');
+        int b = builder.addSymbol('b');
+        for (int i = 0; i < 7; i++) {
+            builder.addTransition(i, a, (i + 1) % 7);
+            builder.addTransition(i, b, (i + 2) % 7);
+        }
+        CompiledAutomaton automaton = builder.setInitialState(0).build();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ParallelDfaMatcher matcher = new ParallelDfaMatcher(automaton, pool, 1000);
+
+        Random random = new Random(5);
+        for (int i = 0; i < 20; i++) {
+            StringBuilder input = new StringBuilder();
+            int sum = 0;
+            for (int j = 100000 + random.nextInt(1000); j > 0; j--) {
+                boolean isA = random.nextBoolean();
+                input.append(isA ? 'a' : 'b');
+                sum += isA ? 1 : 2;
+            }
+            assertEquals(sum % 7 == 0, matcher.matches(input));
+        }
+
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 70000; i++) {
+            input.append('a');
+        }
+        assertTrue(matcher.matches(input));
+        input.setCharAt(40000, 'c');
+        assertFalse(matcher.matches(input));
+        pool.shutdown();
+    }
+
+    @Test
+    public void theLastCharacterShouldBeUsableAsASymbol() {
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int q0 = builder.addState("Q0", false);
+        int q1 = builder.addState("Q1", true);
+        builder.addTransition(q0, builder.addSymbol('\uFFFF'), q1);
+        ParallelDfaMatcher matcher = new ParallelDfaMatcher(builder.setInitialState(q0).build());
+
+        assertTrue(matcher.matches("\uFFFF"));
+        assertFalse(matcher.matches("\uFFFE"));
+        assertFalse(matcher.matches("\uFFFF\uFFFF"));
+    }
+}
@@ -0,0 +1,66 @@
+package test.java.engine;
+
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.StreamMatcher;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Mert Acar
+ */
+public class StreamMatcherTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static CompiledAutomaton getEvenNumberOfSymbolsAutomaton() {
+        // Accepts words over {a,é} of even length
+        CompiledAutomaton.Builder builder = new CompiledAutomaton.Builder();
+        int even = builder.addState("Q0", true);
+        int odd = builder.addState("Q1", false);
+        for (char symbol : new char[]{'a', 'é'}) {
+            builder.addTransition(even, builder.addSymbol(symbol), odd);
+            builder.addTransition(odd, builder.addSymbol(symbol), even);
+        }
+        return builder.setInitialState(even).build();
+    }
+
+    @Test
+    public void largeFilesShouldBeMatchedWithoutBeingReadIntoAString() throws IOException {
+        Path file = temporaryFolder.newFile().toPath();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 1_000_000; i++) {
+                writer.write("aé");
+            }
+        }
+        StreamMatcher matcher = new StreamMatcher(getEvenNumberOfSymbolsAutomaton());
+        assertTrue(matcher.matches(file));
+
+        Files.write(file, "aéa".getBytes(StandardCharsets.UTF_8));
+        assertFalse(matcher.matches(file));
+    }
+
+    @Test
+    public void acceptingPositionsShouldBeReportedUntilTheAutomatonGetsStuck() throws IOException {
+        Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, "aéaaxaa".getBytes(StandardCharsets.UTF_8));
+        List<Long> positions = new ArrayList<>();
+        long processed = new StreamMatcher(getEvenNumberOfSymbolsAutomaton()).findAcceptingPositions(file, positions::add);
+
+        assertEquals(Arrays.asList(0L, 2L, 4L), positions);
+        assertEquals(4, processed);
+    }
+}
@@ -1,6 +1,11 @@
 package test.java.model;
 
+import main.java.engine.CompiledAutomaton;
+import main.java.engine.LazyDfa;
+import main.java.model.CompiledFiniteStateMachine;
 import main.java.model.FiniteStateMachine;
+import main.java.model.FiniteStateMachineEvent;
+import main.java.model.FiniteStateMachineListener;
 import main.java.model.State;
 import main.java.model.Transition;
 import main.java.shared.Unicode;
@@ -9,12 +14,17 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -142,6 +152,44 @@ public class FiniteStateMachineTest {
         assertEquals(1, finiteStateMachine.getAllTransitions().size());
     }
 
+    @Test
+    public void transitionsShouldBeRetrievableByOriginatingStateAndSymbol() {
+        State state = getNewStandardState("Q0");
+        State otherState = getNewStandardState("Q1");
+        finiteStateMachine.addState(state);
+        finiteStateMachine.addState(otherState);
+        Transition transition = new Transition(state, "A", otherState);
+        finiteStateMachine.addTransition(state, transition);
+        finiteStateMachine.addTransition(state, new Transition(state, "B", state));
+
+        assertEquals(1, finiteStateMachine.getOutgoingTransitions(state, "A").size());
+        assertTrue(finiteStateMachine.getOutgoingTransitions(state, "A").contains(transition));
+        assertTrue(finiteStateMachine.getOutgoingTransitions(otherState, "A").isEmpty());
+        finiteStateMachine.removeTransition(state, transition);
+        assertTrue(finiteStateMachine.getOutgoingTransitions(state, "A").isEmpty());
+        assertEquals(1, finiteStateMachine.getOutgoingTransitions(state, "B").size());
+    }
+
+    @Test
+    public void transitionsShouldBeRetrievableByDestinationState() {
+        State state = getNewStandardState("Q0");
+        State otherState = getNewStandardState("Q1");
+        finiteStateMachine.addState(state);
+        finiteStateMachine.addState(otherState);
+        Transition incoming = new Transition(state, "A", otherState);
+        Transition outgoing = new Transition(otherState, "A", state);
+        finiteStateMachine.addTransition(state, incoming);
+        finiteStateMachine.addTransition(otherState, outgoing);
+
+        assertEquals(1, finiteStateMachine.getIncomingTransitions(otherState).size());
+        assertTrue(finiteStateMachine.getIncomingTransitions(otherState).contains(incoming));
+        finiteStateMachine.removeTransition(state, incoming);
+        assertTrue(finiteStateMachine.getIncomingTransitions(otherState).isEmpty());
+        // Removing a state also removes its outgoing transitions from the incoming index of their destinations
+        finiteStateMachine.removeState(otherState);
+        assertTrue(finiteStateMachine.getIncomingTransitions(state).isEmpty());
+    }
+
     @Test
     public void removingTransitionsShouldUpdateAutomaton() {
         State state = getNewStandardState("Q1");
@@ -173,6 +221,95 @@ public class FiniteStateMachineTest {
         assertFalse(finiteStateMachine.removeTransition(state, new Transition(state, Unicode.EPSILON, state)));
     }
 
+    @Test
+    public void compiledAutomatonShouldOnlyBeRebuiltAfterModification() {
+        State state = getNewInitialState("Q0");
+        finiteStateMachine.addState(state);
+        CompiledAutomaton compiled = finiteStateMachine.getCompiledAutomaton();
+        assertSame(compiled, finiteStateMachine.getCompiledAutomaton());
+        assertFalse(compiled.isAccepting(0));
+
+        finiteStateMachine.setAccepting(state, true);
+        CompiledAutomaton recompiled = finiteStateMachine.getCompiledAutomaton();
+        assertNotSame(compiled, recompiled);
+        assertTrue(recompiled.isAccepting(0));
+        CompiledFiniteStateMachine snapshot = finiteStateMachine.getCompiledFiniteStateMachine();
+        assertSame(recompiled, snapshot.getAutomaton());
+        assertEquals(state, snapshot.getState(recompiled.getInitialState()));
+
+        Transition transition = new Transition(state, "A", state);
+        finiteStateMachine.addTransition(state, transition);
+        CompiledFiniteStateMachine newSnapshot = finiteStateMachine.getCompiledFiniteStateMachine();
+        recompiled = newSnapshot.getAutomaton();
+        int symbolId = recompiled.getSymbolId('A');
+        assertEquals(transition, newSnapshot.getTransition(recompiled.getTransitionId(recompiled.getTransitionsStart(0, symbolId))));
+        // Ids keep mapping through the snapshot they were computed on
+        assertEquals(0, snapshot.getAutomaton().getNumberOfTransitions());
+        assertEquals(state, snapshot.getState(0));
+    }
+
+    @Test
+    public void lazyDfaShouldMatchTheCompiledAutomatonItWasBuiltFrom() {
+        State state = getNewInitialState("Q0");
+        finiteStateMachine.addState(state);
+        finiteStateMachine.setAccepting(state, true);
+        finiteStateMachine.addTransition(state, new Transition(state, "A", state));
+        LazyDfa lazyDfa = new LazyDfa(finiteStateMachine.getCompiledAutomaton());
+        assertTrue(lazyDfa.matches("AA"));
+
+        finiteStateMachine.removeTransition(state, new Transition(state, "A", state));
+        // A lazy DFA is not rebuilt when the finite automaton is modified, another is built from the new compiled form
+        assertTrue(lazyDfa.matches("AA"));
+        LazyDfa rebuiltLazyDfa = new LazyDfa(finiteStateMachine.getCompiledAutomaton());
+        assertFalse(rebuiltLazyDfa.matches("AA"));
+        assertTrue(rebuiltLazyDfa.matches(""));
+    }
+
+    @Test
+    public void changesMadeInABatchShouldBeReportedAsOneEvent() {
+        List<FiniteStateMachineEvent> events = new ArrayList<>();
+        FiniteStateMachineListener listener = events::add;
+        finiteStateMachine.addListener(listener);
+        long version = finiteStateMachine.getVersion();
+
+        State state = getNewStandardState("Q0");
+        finiteStateMachine.addState(state);
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).hasType(FiniteStateMachineEvent.Type.STATE_ADDED));
+        assertTrue(finiteStateMachine.getVersion() > version);
+
+        finiteStateMachine.beginBatch();
+        Transition transition = new Transition(state, "A", state);
+        finiteStateMachine.addSymbolToAlphabet('A');
+        finiteStateMachine.addTransition(state, transition);
+        finiteStateMachine.setAccepting(state, true);
+        assertEquals(1, events.size());
+        finiteStateMachine.endBatch();
+        finiteStateMachine.removeListener(listener);
+
+        assertEquals(2, events.size());
+        FiniteStateMachineEvent event = events.get(1);
+        assertEquals(EnumSet.of(FiniteStateMachineEvent.Type.ALPHABET_CHANGED, FiniteStateMachineEvent.Type.TRANSITION_ADDED, FiniteStateMachineEvent.Type.ACCEPTING_STATE_CHANGED), event.getTypes());
+        assertEquals(Collections.singletonList(transition), event.getTransitions());
+        assertEquals(finiteStateMachine.getVersion(), event.getVersion());
+    }
+
+    @Test
+    public void listenersShouldBeNotifiedOnceTheChangeHasBeenMade() {
+        List<String> observations = new ArrayList<>();
+        FiniteStateMachineListener listener = event -> observations.add(event.getTypes() + " " + finiteStateMachine.getAlphabet()
+                + " " + finiteStateMachine.getStates().size() + " " + finiteStateMachine.hasInitialState());
+        finiteStateMachine.addListener(listener);
+        finiteStateMachine.addSymbolToAlphabet('A');
+        State initialState = getNewInitialState("Q0");
+        finiteStateMachine.addState(initialState);
+        finiteStateMachine.removeState(initialState);
+        finiteStateMachine.removeListener(listener);
+
+        assertEquals(Arrays.asList("[ALPHABET_CHANGED] [A] 0 false", "[STATE_ADDED, INITIAL_STATE_CHANGED] [A] 1 true",
+                "[STATE_REMOVED, INITIAL_STATE_CHANGED] [A] 0 false"), observations);
+    }
+
     @Test
     public void toStringShouldReturnFiniteAutomatonAttributes() {
         State initialState = getNewInitialState("Q0");
@@ -15,6 +15,8 @@ import org.testfx.robot.Motion;
 import org.testfx.util.WaitForAsyncUtils;
 import test.java.toolkit.ToolkitTestSetup;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -167,7 +169,9 @@ public class SimulationDialogControllerTest extends ToolkitTestSetup {
         String pathToDelete = "(Q0,00), (Q1,0)";
         clickOnMatchedStringQuery(pathToDelete, MouseButton.SECONDARY);
         clickOnMatchedStringQuery("Delete", MouseButton.PRIMARY);
-        assertFalse(lookup("#lvPaths").queryListView().getItems().contains(pathToDelete));
+        WaitForAsyncUtils.waitForFxEvents();
+        assertFalse(getListedPaths().contains(pathToDelete));
+        assertEquals(2, getListedPaths().size());
     }
 
     @Test
@@ -181,7 +185,9 @@ public class SimulationDialogControllerTest extends ToolkitTestSetup {
         String pathToDelete = "(Q0,00), (Q1,0)";
         clickOnMatchedStringQuery(pathToDelete, MouseButton.PRIMARY);
         press(KeyCode.BACK_SPACE);
-        assertFalse(lookup("#lvPaths").queryListView().getItems().contains(pathToDelete));
+        WaitForAsyncUtils.waitForFxEvents();
+        assertFalse(getListedPaths().contains(pathToDelete));
+        assertEquals(2, getListedPaths().size());
     }
 
     @Test
@@ -210,10 +216,21 @@ public class SimulationDialogControllerTest extends ToolkitTestSetup {
         assertFalse(contextMenuOfListView.isShowing());
     }
 
+    private List<String> getListedPaths() {
+        // The items are configurations, so the paths are read from the cells which format them
+        List<String> listedPaths = new ArrayList<>();
+        for (ListCell listCell : (Set<ListCell>) (Set) lookup("#lvPaths .list-cell").queryAll()) {
+            if (!listCell.isEmpty() && listCell.getText() != null) {
+                listedPaths.add(listCell.getText());
+            }
+        }
+        return listedPaths;
+    }
+
     private Paint getColourOfSelectedListCell() {
-        String selectedPath = String.valueOf(lookup("#lvPaths").queryListView().getSelectionModel().getSelectedItem());
+        int selectedIndex = lookup("#lvPaths").queryListView().getSelectionModel().getSelectedIndex();
         for (ListCell listCell : (Set<ListCell>) (Set) lookup("#lvPaths .list-cell:selected").queryAll()) {
-            if (listCell.getText().equals(selectedPath)) {
+            if (listCell.getIndex() == selectedIndex) {
                 return listCell.getBackground().getFills().get(0).getFill();
             }
         }